@@ -0,0 +1,27 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler always on, so every result comes with
+ * its allocation rate per operation (gc.alloc.rate.norm). Any regular JMH
+ * command line options can be passed, e.g. a benchmark name regex:
+ * <pre>
+ * mvn -pl benchmarks -am package
+ * java -jar benchmarks/target/benchmarks.jar MoveGeneration -p position=middlegame
+ * </pre>
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        var options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
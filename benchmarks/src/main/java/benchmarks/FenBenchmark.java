@@ -0,0 +1,73 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.Fen;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing FEN onto a reused game, one position per op, which
+ * should be 0 B/op under -prof gc.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FenBenchmark {
+
+    private static final String[] NAMES = {Positions.OPENING, Positions.MIDDLEGAME, Positions.ENDGAME,
+            Positions.CHECK, Positions.CHECKMATE, Positions.PROMOTION};
+
+    private final ChessGame game = new ChessGame();
+    private final String[] fens = new String[NAMES.length];
+    private final StringBuilder text = new StringBuilder(100);
+    private ByteBuffer corpus;
+    private ByteBuffer out;
+    private int next;
+
+    @Setup
+    public void setup() {
+        var lines = new StringBuilder();
+        for (int i = 0; i < NAMES.length; i++) {
+            fens[i] = Positions.fen(NAMES[i]);
+            lines.append(fens[i]).append('\n');
+        }
+        corpus = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.US_ASCII));
+        out = ByteBuffer.allocate(100);
+    }
+
+    @Benchmark
+    public ChessGame readCharSequence() {
+        Fen.read(fens[next++ % fens.length], game);
+        return game;
+    }
+
+    // one line of a bulk import buffer, starting over at the end
+    @Benchmark
+    public ChessGame readByteBuffer() {
+        if (!Fen.read(corpus, game)) {
+            corpus.rewind();
+            Fen.read(corpus, game);
+        }
+        return game;
+    }
+
+    @Benchmark
+    public int writeStringBuilder() {
+        text.setLength(0);
+        Fen.write(game, text);
+        return text.length();
+    }
+
+    @Benchmark
+    public int writeByteBuffer() {
+        out.clear();
+        Fen.write(game, out);
+        return out.position();
+    }
+}
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.GameStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The check, checkmate and stalemate questions the server asks after every move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStatusBenchmark {
+
+    @Param({Positions.OPENING, Positions.MIDDLEGAME, Positions.ENDGAME, Positions.CHECK, Positions.CHECKMATE,
+            Positions.PROMOTION})
+    public String position;
+
+    private ChessGame game;
+
+    @Setup
+    public void setup() {
+        game = Positions.load(position);
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(game.getTeamTurn());
+    }
+
+    // everything the server needs to report after a move
+    @Benchmark
+    public boolean allThree() {
+        ChessGame.TeamColor turn = game.getTeamTurn();
+        return game.isInCheck(turn) | game.isInCheckmate(turn) | game.isInStalemate(turn);
+    }
+
+    // the single pass version, a game's status is cached so this also covers repeat asks
+    @Benchmark
+    public GameStatus status() {
+        return game.status();
+    }
+}
@@ -0,0 +1,115 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.MoveGenerator;
+import chess.MoveList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Move generation for the side to move, from raw piece moves up to the full
+ * legal move list, over each position in {@link Positions}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+
+    @Param({Positions.OPENING, Positions.MIDDLEGAME, Positions.ENDGAME, Positions.CHECK, Positions.PROMOTION})
+    public String position;
+
+    @Param({"PIN_AWARE", "MAKE_AND_TEST"})
+    public ChessGame.MoveGeneration generation;
+
+    private ChessGame game;
+    private final List<ChessPosition> pieces = new ArrayList<>();
+    private final MoveList moves = new MoveList();
+    private int checksum;
+    // made once so the callback benchmark doesn't measure a lambda per call
+    private final IntConsumer sink = move -> checksum += move;
+
+    @Setup
+    public void setup() {
+        game = Positions.load(position);
+        game.setMoveGeneration(generation);
+        // squares holding the side to move's pieces
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                var piece = game.getBoard().getPiece(new ChessPosition(row, col));
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    pieces.add(new ChessPosition(row, col));
+                }
+            }
+        }
+    }
+
+    // MoveCalculator through ChessPiece.pieceMoves, no legality checking
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for (ChessPosition square : pieces) {
+            ChessPiece piece = game.getBoard().getPiece(square);
+            blackhole.consume(piece.pieceMoves(game.getBoard(), square));
+        }
+    }
+
+    // the public per-piece API
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (ChessPosition square : pieces) {
+            for (ChessMove move : game.validMoves(square)) {
+                blackhole.consume(move);
+            }
+        }
+    }
+
+    // per-piece packed moves into a reused list, should be 0 B/op under -prof gc
+    @Benchmark
+    public int validMovesIntoList() {
+        int total = 0;
+        for (ChessPosition square : pieces) {
+            game.validMoves(square, moves);
+            total += moves.size();
+        }
+        return total;
+    }
+
+    // per-piece packed moves handed to a callback, should be 0 B/op under -prof gc
+    @Benchmark
+    public int validMovesIntoSink() {
+        checksum = 0;
+        for (ChessPosition square : pieces) {
+            game.validMoves(square, sink);
+        }
+        return checksum;
+    }
+
+    // the per-thread generator working on a bare board, always pin aware
+    @Benchmark
+    public int threadGeneratorValidMoves() {
+        MoveGenerator generator = MoveGenerator.forCurrentThread();
+        int total = 0;
+        for (ChessPosition square : pieces) {
+            generator.validMoves(game.getBoard(), square, moves);
+            total += moves.size();
+        }
+        return total;
+    }
+
+    // every legal move as packed ints into a reused list
+    @Benchmark
+    public int legalMovesPacked() {
+        game.legalMoves(moves);
+        return moves.size();
+    }
+}
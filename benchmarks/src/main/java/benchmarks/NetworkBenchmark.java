@@ -0,0 +1,85 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.MoveList;
+import chess.engine.Accumulator;
+import chess.engine.Evaluation;
+import chess.engine.Network;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a network evaluation the way the search pays it: play a move, which
+ * updates the accumulator, evaluate, take the move back. The vector methods fork
+ * with the Vector API module loaded and the scalar ones without it, so the
+ * difference is the SIMD kernels. The piece-square tables are the baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NetworkBenchmark {
+
+    @Param({Positions.MIDDLEGAME})
+    public String position;
+
+    @Param({"256", "512"})
+    public int hidden;
+
+    private ChessGame game;
+    private Accumulator accumulator;
+    private final MoveList moves = new MoveList();
+    private int next;
+
+    @Setup
+    public void setup() {
+        game = Positions.load(position);
+        accumulator = Network.random(hidden, 1).newAccumulator();
+        game.getBoard().setPieceListener(accumulator);
+        game.legalMoves(moves);
+    }
+
+    private int moveAndEvaluate() {
+        int move = moves.get(next);
+        next = next + 1 == moves.size() ? 0 : next + 1;
+        game.doMove(move);
+        int score = accumulator.evaluate(game.getTeamTurn());
+        game.undoMove();
+        return score;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public int vectorMoveAndEvaluate() {
+        return moveAndEvaluate();
+    }
+
+    @Benchmark
+    public int scalarMoveAndEvaluate() {
+        return moveAndEvaluate();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public int vectorEvaluate() {
+        return accumulator.evaluate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public int scalarEvaluate() {
+        return accumulator.evaluate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public int tablesMoveAndEvaluate() {
+        int move = moves.get(next);
+        next = next + 1 == moves.size() ? 0 : next + 1;
+        game.doMove(move);
+        int score = Evaluation.evaluate(game);
+        game.undoMove();
+        return score;
+    }
+}
@@ -0,0 +1,52 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.Fen;
+
+import java.util.Map;
+
+/**
+ * The positions every benchmark runs over, as FEN.
+ */
+public final class Positions {
+
+    private Positions() {}
+
+    public static final String OPENING = "opening";
+    public static final String MIDDLEGAME = "middlegame";
+    public static final String ENDGAME = "endgame";
+    public static final String CHECK = "check";
+    public static final String CHECKMATE = "checkmate";
+    public static final String PROMOTION = "promotion";
+
+    private static final Map<String, String> FENS = Map.of(
+            // after 1. e4 e5 2. Nf3 Nc6
+            OPENING, "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w - - 0 1",
+            MIDDLEGAME, "r2q1rk1/pp1nbppp/2p1pn2/3p4/2PP4/2N1PN2/PPQ1BPPP/R3K2R w - - 0 1",
+            ENDGAME, "8/5k2/3p2p1/2pP4/2P2P2/4K3/7R/2r5 w - - 0 1",
+            // white king checked by the bishop on b4
+            CHECK, "rnbqk1nr/pppp1ppp/8/4p3/1b1P4/8/PPP1PPPP/RNBQKBNR w - - 0 1",
+            // fool's mate
+            CHECKMATE, "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w - - 0 1",
+            PROMOTION, "7k/1P1P1P2/8/8/8/8/1p2p3/K7 w - - 0 1");
+
+    /**
+     * @param name one of the position names above
+     * @return the position's FEN
+     */
+    public static String fen(String name) {
+        String fen = FENS.get(name);
+        if (fen == null) {
+            throw new IllegalArgumentException("Unknown position: " + name);
+        }
+        return fen;
+    }
+
+    /**
+     * @param name one of the position names above
+     * @return a new game set up at that position
+     */
+    public static ChessGame load(String name) {
+        return Fen.parse(fen(name));
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to reach a fixed depth with a cleared table, by thread count. The speedup
+ * of the parallel search is the 1-thread time over the N-thread time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({Positions.OPENING, Positions.MIDDLEGAME, Positions.ENDGAME})
+    public String position;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"7"})
+    public int depth;
+
+    private ChessGame game;
+    private ParallelSearch search;
+
+    @Setup
+    public void setup() {
+        game = Positions.load(position);
+        search = new ParallelSearch(threads, new TranspositionTable(64));
+    }
+
+    // every search starts from an empty table, the clearing isn't timed
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        search.table().clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        search.close();
+    }
+
+    @Benchmark
+    public SearchResult timeToDepth() {
+        return search.search(game, SearchLimits.depth(depth));
+    }
+}
@@ -1,8 +1,10 @@
 package dataaccess;
 
 import model.GameData;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 
 public class GameDao {
     private int nextGameID = 1;
@@ -20,6 +22,15 @@ public class GameDao {
         return newGame.gameID();
     }
 
+    // adds many games at once, giving each the next id in order
+    public List<Integer> createGames(List<GameData> batch) throws DataAccessException {
+        var ids = new ArrayList<Integer>(batch.size());
+        for (GameData g : batch) {
+            ids.add(createGame(g));
+        }
+        return ids;
+    }
+
     public GameData getGame(int gameId) throws DataAccessException {
         return games.get(gameId);
     }
@@ -1,14 +1,20 @@
 package server;
 
+import chess.PgnReader;
 import dataaccess.AuthDao;
+import dataaccess.DataAccessException;
 import dataaccess.GameDao;
 import dataaccess.UserDao;
 import io.javalin.*;
 import server.handler.*;
 import service.ClearService;
 import service.GameService;
+import service.ImportService;
 import service.UserService;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 
 public class Server {
     UserDao userDao = new UserDao();
@@ -48,6 +54,20 @@ public class Server {
 
     }
 
+    /**
+     * Adds the playable games of a PGN archive to this server's games, see
+     * {@link ImportService}. Call it before {@link #run}, the game store isn't
+     * safe to write while requests are being served.
+     *
+     * @param pgn the archive to read
+     * @return how the import went
+     */
+    public ImportService.ImportResult importGames(Path pgn) throws IOException, DataAccessException {
+        try (var reader = PgnReader.open(pgn)) {
+            return new ImportService(gameDao).importGames(reader);
+        }
+    }
+
     public int run(int desiredPort) {
         javalin.start(desiredPort);
         return javalin.port();
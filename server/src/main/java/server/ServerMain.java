@@ -2,9 +2,24 @@ package server;
 
 import chess.*;
 
+import java.nio.file.Path;
+
 public class ServerMain {
-    public static void main(String[] args) {
+    // java server.ServerMain [port [games.pgn ...]], the archives are imported before the server starts
+    public static void main(String[] args) throws Exception {
         var piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
         System.out.println("♕ 240 Chess Server: " + piece);
+        if (args.length == 0) {
+            return;
+        }
+        var server = new Server();
+        for (int i = 1; i < args.length; i++) {
+            var result = server.importGames(Path.of(args[i]));
+            System.out.printf("%s: %d imported, %d skipped for castling or en passant, %d with bad moves, "
+                            + "%.0f games/s%n", args[i], result.imported(), result.unsupported(), result.illegal(),
+                    result.gamesPerSecond());
+        }
+        int port = server.run(Integer.parseInt(args[0]));
+        System.out.println("Listening on port " + port);
     }
 }
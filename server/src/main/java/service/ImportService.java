@@ -0,0 +1,138 @@
+package service;
+
+import chess.ChessGame;
+import chess.PgnGame;
+import chess.PgnReader;
+import dataaccess.DataAccessException;
+import dataaccess.GameDao;
+import model.GameData;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Imports archives of finished games from PGN.
+ * <p>
+ * The calling thread streams games out of the file and hands them out in
+ * batches to a pool of threads, which play each game through. Finished batches
+ * are added to the {@link GameDao} in the order they were read, one batch at a
+ * time. Only a couple of batches per thread are ever in flight, so memory use
+ * doesn't grow with the size of the file.
+ */
+public class ImportService {
+    private final GameDao gameDao;
+    private final int threads;
+    private final int batchSize;
+
+    /**
+     * How an import went
+     *
+     * @param imported    games added
+     * @param unsupported games skipped for castling or taking en passant
+     * @param illegal     games skipped for a move that couldn't be read or played
+     * @param nanos       how long the import took
+     */
+    public record ImportResult(int imported, int unsupported, int illegal, long nanos) {
+        public double gamesPerSecond() {
+            return nanos == 0 ? 0 : (imported + unsupported + illegal) * 1e9 / nanos;
+        }
+    }
+
+    public ImportService(GameDao gameDao) {
+        this(gameDao, Runtime.getRuntime().availableProcessors(), 1000);
+    }
+
+    public ImportService(GameDao gameDao, int threads, int batchSize) {
+        this.gameDao = gameDao;
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Reads every game from a PGN stream and adds the ones that can be played
+     * under these rules, each in its final position
+     */
+    public ImportResult importGames(PgnReader reader) throws IOException, DataAccessException {
+        long start = System.nanoTime();
+        int[] counts = new int[PgnGame.Outcome.values().length];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            var pending = new ArrayDeque<Future<Batch>>();
+            var games = new ArrayList<PgnGame>(batchSize);
+            PgnGame game;
+            while ((game = reader.next()) != null) {
+                games.add(game);
+                if (games.size() == batchSize) {
+                    List<PgnGame> full = games;
+                    pending.add(pool.submit(() -> replay(full)));
+                    games = new ArrayList<>(batchSize);
+                    // wait for the oldest batch once enough are queued up
+                    if (pending.size() >= threads * 2) {
+                        store(pending.remove(), counts);
+                    }
+                }
+            }
+            if (!games.isEmpty()) {
+                List<PgnGame> last = games;
+                pending.add(pool.submit(() -> replay(last)));
+            }
+            while (!pending.isEmpty()) {
+                store(pending.remove(), counts);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new ImportResult(counts[PgnGame.Outcome.OK.ordinal()],
+                counts[PgnGame.Outcome.UNSUPPORTED.ordinal()], counts[PgnGame.Outcome.ILLEGAL.ordinal()],
+                System.nanoTime() - start);
+    }
+
+    // a batch played through, the games to add and how many of each outcome there were
+    private record Batch(List<GameData> games, int[] counts) {}
+
+    private static Batch replay(List<PgnGame> games) {
+        var playable = new ArrayList<GameData>(games.size());
+        int[] counts = new int[PgnGame.Outcome.values().length];
+        for (PgnGame game : games) {
+            PgnGame.Replay replay = game.replay();
+            counts[replay.outcome().ordinal()]++;
+            if (replay.outcome() == PgnGame.Outcome.OK) {
+                // a copy of the final position, without the replayed moves to undo
+                playable.add(new GameData(0, null, null, gameName(game), new ChessGame(replay.game())));
+            }
+        }
+        return new Batch(playable, counts);
+    }
+
+    // "White vs Black", falling back to the event
+    private static String gameName(PgnGame game) {
+        String white = game.tags().get("White");
+        String black = game.tags().get("Black");
+        if (white != null && black != null) {
+            return white + " vs " + black;
+        }
+        return game.tags().getOrDefault("Event", "Imported game");
+    }
+
+    private void store(Future<Batch> future, int[] counts) throws DataAccessException {
+        Batch batch;
+        try {
+            batch = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Error: import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new DataAccessException("Error: replaying games failed", e.getCause());
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += batch.counts()[i];
+        }
+        gameDao.createGames(batch.games());
+    }
+}
@@ -0,0 +1,92 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.PgnReader;
+import dataaccess.*;
+import model.*;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+public class ImportServiceTest {
+
+    private static PgnReader reader(String pgn) {
+        return new PgnReader(Channels.newChannel(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    // playable games are added in file order, the rest are counted and skipped
+    @Test
+    public void importsPlayableGamesInOrder() throws IOException, DataAccessException {
+        var pgn = new StringBuilder();
+        for (int i = 0; i < 25; i++) {
+            pgn.append("[White \"w").append(i).append("\"]\n[Black \"b").append(i).append("\"]\n\n");
+            switch (i % 5) {
+                case 3 -> pgn.append("1. e4 e5 2. Nf3 Nc6 3. Bc4 Nf6 4. O-O *\n\n");
+                case 4 -> pgn.append("1. e4 e5 2. e5 *\n\n");
+                default -> pgn.append("1. e4 e5 *\n\n");
+            }
+        }
+        var gameDao = new GameDao();
+        var result = new ImportService(gameDao, 3, 2).importGames(reader(pgn.toString()));
+        Assertions.assertEquals(15, result.imported());
+        Assertions.assertEquals(5, result.unsupported());
+        Assertions.assertEquals(5, result.illegal());
+        Assertions.assertTrue(result.gamesPerSecond() > 0);
+
+        Assertions.assertEquals(15, gameDao.listGames().size());
+        var first = gameDao.getGame(1);
+        Assertions.assertEquals("w0 vs b0", first.gameName());
+        Assertions.assertNull(first.whiteUsername());
+        Assertions.assertEquals("w5 vs b5", gameDao.getGame(4).gameName());
+
+        var expected = new ChessGame();
+        expected.doMove(ChessMove.of(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        expected.doMove(ChessMove.of(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        Assertions.assertEquals(expected, first.game());
+        // stored games keep the final position only, not the replay
+        Assertions.assertThrows(IllegalStateException.class, () -> first.game().undoMove());
+    }
+
+    // a game with an unreadable setup is counted and skipped, the games around it still get in
+    @Test
+    public void badFenTagSkipsOnlyThatGame() throws IOException, DataAccessException {
+        var pgn = """
+                [White "first"]
+                [Black "x"]
+
+                1. e4 e5 *
+
+                [White "broken"]
+                [Black "x"]
+                [FEN "8/8/9/not a position w"]
+
+                1. e4 *
+
+                [White "last"]
+                [Black "x"]
+
+                1. d4 d5 *
+                """;
+        var gameDao = new GameDao();
+        var result = new ImportService(gameDao, 2, 1).importGames(reader(pgn));
+        Assertions.assertEquals(2, result.imported());
+        Assertions.assertEquals(1, result.illegal());
+        Assertions.assertEquals("first vs x", gameDao.getGame(1).gameName());
+        Assertions.assertEquals("last vs x", gameDao.getGame(2).gameName());
+    }
+
+    @Test
+    public void createGamesGivesIdsInOrder() throws DataAccessException {
+        var gameDao = new GameDao();
+        gameDao.createGame(new GameData(0, null, null, "first", new ChessGame()));
+        var ids = gameDao.createGames(java.util.List.of(new GameData(0, null, null, "a", new ChessGame()),
+                new GameData(0, null, null, "b", new ChessGame())));
+        Assertions.assertEquals(java.util.List.of(2, 3), ids);
+        Assertions.assertEquals("b", gameDao.getGame(3).gameName());
+    }
+}
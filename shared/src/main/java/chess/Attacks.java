@@ -0,0 +1,215 @@
+package chess;
+
+/**
+ * Precomputed attack sets for every piece type.
+ * <p>
+ * Knights, kings and pawns use a plain table per square. Rooks and bishops use
+ * magic bitboards: the blockers on a slider's relevant squares are multiplied by
+ * a per-square magic number and shifted down to an index into that square's
+ * attack table, so a slider lookup is one multiply, one shift and one load.
+ * The magic numbers below were found offline by trying sparse random numbers
+ * until every blocker subset of a square mapped to a slot without a conflicting
+ * attack set; class load only has to fill the tables in.
+ */
+final class Attacks {
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] KNIGHT_JUMPS = {{1, 2}, {1, -2}, {-1, 2}, {-1, -2},
+            {2, 1}, {2, -1}, {-2, 1}, {-2, -1}};
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    // indexed by team color ordinal, the squares a pawn on that square captures on
+    private static final long[][] PAWN = new long[2][64];
+
+    private static final long[] ROOK_MAGICS = {
+            0x0880004000801022L, 0x4440200440021000L, 0x088008D002200080L, 0x2500209000090004L,
+            0x1080040068008022L, 0x2200010842004410L, 0x1500008409000200L, 0x020000804029040AL,
+            0x4800800040008020L, 0x2082002200410082L, 0x0301001041082000L, 0xC041808008003000L,
+            0x00A4800400800800L, 0x0010800200800400L, 0x0184800100020080L, 0x0040800040802100L,
+            0x4000848004400060L, 0x8684444010002000L, 0x2006820010204200L, 0x0000090021001000L,
+            0x2009010008001004L, 0x900C008004020080L, 0x4108040001100288L, 0x5020220000804114L,
+            0x0080034240002000L, 0x03D0104040002000L, 0x4000100480200480L, 0x0040401200200A00L,
+            0x1032000600102008L, 0x0B820002801C0080L, 0x080A004200011488L, 0x0002908200140041L,
+            0x0080002000400040L, 0x10E0804000802003L, 0x0220100080802000L, 0x2204805004800801L,
+            0xC805004413000800L, 0x0050020080800400L, 0x0010800100800200L, 0x0004008502000864L,
+            0x0002008100420020L, 0x000150002008C000L, 0x090C410020090010L, 0x88422200400A0011L,
+            0x0008002040040400L, 0x0002001004020008L, 0x00008D2842040010L, 0x4204410080420004L,
+            0x0040800821004100L, 0x0200842000400480L, 0x0020620140B68200L, 0x80100008E1510100L,
+            0x0080800801040180L, 0x0803000804000300L, 0x0000080162300400L, 0x4002108041040200L,
+            0x8200102040800101L, 0x4602400016210481L, 0x08000A0040102082L, 0x0410210108100005L,
+            0x1011001008000423L, 0x11B1000400020801L, 0x0000012200881004L, 0x000008204401008AL
+    };
+    private static final long[] BISHOP_MAGICS = {
+            0x08040104010A0A00L, 0x20080800C4004040L, 0x211008B0A1010804L, 0x0108061840900088L,
+            0x0210882000442020L, 0x3009045241040400L, 0xC010A80802100046L, 0x02018A0802010400L,
+            0x080010111001204AL, 0x0080041024005080L, 0x8140418103010080L, 0x0040640428800614L,
+            0x0000411041302012L, 0x0022008820880490L, 0x402000450C10C080L, 0x1454020704925000L,
+            0x4044000988080800L, 0x02A0000404041044L, 0x05020030102A0320L, 0x020420180A0060A8L,
+            0x8882004C02110000L, 0x0083000200514404L, 0x002C040209046208L, 0x2285180044008409L,
+            0x2002081020481020L, 0x1004020004884820L, 0x02180A000C4A0600L, 0x0480802008020020L,
+            0x0481020004008400L, 0x0470030001806104L, 0x4304084404210408L, 0x0002890040844802L,
+            0x2201200800105020L, 0x8803A49001201200L, 0x0400222408480800L, 0x0004208020080200L,
+            0x0008020010040900L, 0x1002004100021008L, 0x0002108A00010800L, 0x3050810100A04410L,
+            0x0024100808230400L, 0x10010410AA004420L, 0x01000C0048002401L, 0x0081011414041800L,
+            0x0400812012000100L, 0x0040182804204840L, 0x0144100220420A00L, 0x0410020216204040L,
+            0x8006010420050020L, 0x48120280D8082001L, 0x8000428048280000L, 0x1000230042020081L,
+            0x8244A21002120340L, 0x0100081001820880L, 0x0421044102340000L, 0x0004114802008404L,
+            0x2080842110022010L, 0x0020007309082000L, 0x1010200052080400L, 0x4201009200460800L,
+            0x00084040E014A401L, 0x2101004011240121L, 0x0520404204840080L, 0x0A4C907009012380L
+    };
+
+    private static final Magic[] ROOK = new Magic[64];
+    private static final Magic[] BISHOP = new Magic[64];
+
+    // for two squares on a shared rank, file or diagonal: the squares strictly between
+    // them, and the whole line through both from edge to edge. 0 if they don't line up
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    private Attacks() {}
+
+    // everything needed to look up one square's slider attacks
+    private record Magic(long mask, long magic, int shift, long[] attacks) {
+        long lookup(long occupied) {
+            return attacks[(int) (((occupied & mask) * magic) >>> shift)];
+        }
+    }
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT[square] = stepAttacks(square, KNIGHT_JUMPS);
+            KING[square] = slidingAttacks(square, -1L, ROOK_DIRECTIONS)
+                    | slidingAttacks(square, -1L, BISHOP_DIRECTIONS);
+            PAWN[ChessGame.TeamColor.WHITE.ordinal()][square] = stepAttacks(square, new int[][]{{1, 1}, {1, -1}});
+            PAWN[ChessGame.TeamColor.BLACK.ordinal()][square] = stepAttacks(square, new int[][]{{-1, 1}, {-1, -1}});
+        }
+        for (int square = 0; square < 64; square++) {
+            ROOK[square] = buildMagic(square, ROOK_DIRECTIONS, ROOK_MAGICS[square]);
+            BISHOP[square] = buildMagic(square, BISHOP_DIRECTIONS, BISHOP_MAGICS[square]);
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long ends = (1L << a) | (1L << b);
+                if (a != b && (rook(a, 0) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = rook(a, 1L << b) & rook(b, 1L << a);
+                    LINE[a][b] = (rook(a, 0) & rook(b, 0)) | ends;
+                } else if (a != b && (bishop(a, 0) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = bishop(a, 1L << b) & bishop(b, 1L << a);
+                    LINE[a][b] = (bishop(a, 0) & bishop(b, 0)) | ends;
+                }
+            }
+        }
+    }
+
+    static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * @return squares a pawn of the given color standing on square attacks
+     */
+    static long pawn(ChessGame.TeamColor color, int square) {
+        return PAWN[color.ordinal()][square];
+    }
+
+    static long rook(int square, long occupied) {
+        return ROOK[square].lookup(occupied);
+    }
+
+    static long bishop(int square, long occupied) {
+        return BISHOP[square].lookup(occupied);
+    }
+
+    static long queen(int square, long occupied) {
+        return ROOK[square].lookup(occupied) | BISHOP[square].lookup(occupied);
+    }
+
+    /**
+     * @return squares strictly between a and b if they share a line, otherwise 0
+     */
+    static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @return the full rank, file or diagonal through a and b, or 0 if they don't share one
+     */
+    static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    // squares one step away in each of the given directions
+    private static long stepAttacks(int square, int[][] steps) {
+        long attacks = 0;
+        for (int[] step : steps) {
+            int r = (square >>> 3) + step[0];
+            int c = (square & 7) + step[1];
+            if (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                attacks |= 1L << (r * 8 + c);
+            }
+        }
+        return attacks;
+    }
+
+    // walk each ray until it leaves the board or hits a blocker (the blocker is included).
+    // only used to build the tables, passing -1 as blockers stops every ray after one step
+    private static long slidingAttacks(int square, long blockers, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int r = (square >>> 3) + direction[0];
+            int c = (square & 7) + direction[1];
+            while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                long bit = 1L << (r * 8 + c);
+                attacks |= bit;
+                if ((blockers & bit) != 0) {
+                    break;
+                }
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    // the squares whose occupancy can change the slider's attacks, which leaves out the
+    // last square of each ray since a piece there never blocks anything further
+    private static long relevantMask(int square, int[][] directions) {
+        long mask = 0;
+        for (int[] direction : directions) {
+            int r = (square >>> 3) + direction[0];
+            int c = (square & 7) + direction[1];
+            while (r + direction[0] >= 0 && r + direction[0] < 8 && c + direction[1] >= 0 && c + direction[1] < 8) {
+                mask |= 1L << (r * 8 + c);
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    // fill one square's table by walking every subset of its relevant mask
+    private static Magic buildMagic(int square, int[][] directions, long magic) {
+        long mask = relevantMask(square, directions);
+        int bits = Long.bitCount(mask);
+        long[] table = new long[1 << bits];
+        boolean[] filled = new boolean[table.length];
+        long subset = 0;
+        do {
+            int index = (int) ((subset * magic) >>> (64 - bits));
+            long attacks = slidingAttacks(square, subset, directions);
+            if (filled[index] && table[index] != attacks) {
+                throw new IllegalStateException("Bad magic number for square " + square);
+            }
+            filled[index] = true;
+            table[index] = attacks;
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+        return new Magic(mask, magic, 64 - bits, table);
+    }
+}
@@ -0,0 +1,44 @@
+package chess;
+
+/**
+ * Helpers for the 64-bit square sets used by {@link ChessBoard}.
+ * <p>
+ * Squares are numbered 0 to 63 starting at row 1, column 1 (a1) and going
+ * across each row, so square = (row - 1) * 8 + (column - 1).
+ */
+final class Bitboards {
+
+    private Bitboards() {}
+
+    // square index from 1-based row and column
+    static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    // 1-based row of a square
+    static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    // 1-based column of a square
+    static int col(int square) {
+        return (square & 7) + 1;
+    }
+
+    static long bit(int square) {
+        return 1L << square;
+    }
+
+    // index into the twelve piece bitboards, white pieces first
+    static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    static int pieceIndex(ChessPiece piece) {
+        return pieceIndex(piece.getTeamColor(), piece.getPieceType());
+    }
+}
@@ -1,7 +1,7 @@
 package chess;
 
 import java.util.Arrays;
-import java.util.Objects;
+import java.util.function.BiConsumer;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
@@ -11,13 +11,59 @@ import java.util.Objects;
  */
 public class ChessBoard {
 
+    /**
+     * Gets the pieces row by row, row 1 first
+     *
+     * @return a copy of the squares, changing it doesn't change the board (use
+     * {@link #addPiece} for that)
+     */
     public ChessPiece[][] getSquares() {
-        return squares;
+        ensureSynced();
+        ChessPiece[][] copy = new ChessPiece[8][];
+        for (int row = 0; row < 8; row++) {
+            copy[row] = squares[row].clone();
+        }
+        return copy;
     }
 
+    // the serialized source of truth, only ever written by setPiece so everything derived from it keeps up
     ChessPiece[][] squares = new ChessPiece[8][8];
+
+    // bitboard core: one occupancy word per color and piece type (see Bitboards.pieceIndex),
+    // plus aggregate masks. these are derived from squares so they aren't serialized
+    private final transient long[] pieceBitboards = new long[12];
+    private final transient long[] colorOccupancy = new long[2];
+    private transient long occupied;
+    // zobrist key of the pieces, kept up to date by setPiece
+    private transient long zobrist;
+    // white's material and square scores minus black's, and how much material is left, see PieceSquareTables
+    private transient int middlegame;
+    private transient int endgame;
+    private transient int phase;
+    // told about every piece put on or taken off, null for none
+    private transient PieceListener listener;
+    // where each team's king is by color ordinal, or -1 if it has none
+    private final transient int[] kingSquares = {-1, -1};
+    // the squares array the bitboards were built from, so a board filled in by
+    // reflection (e.g. gson) rebuilds them on first use
+    private transient ChessPiece[][] syncedSquares = squares;
+
     public ChessBoard() {}
 
+    /**
+     * Makes an independent copy of another board
+     *
+     * @param other the board to copy
+     */
+    public ChessBoard(ChessBoard other) {
+        long pieces = other.occupied();
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            setPiece(square, other.getPiece(square));
+        }
+    }
+
     /**
      * Adds a chess piece to the chessboard
      *
@@ -25,7 +71,7 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow()-1][position.getColumn()-1] = piece;
+        setPiece(Bitboards.square(position), piece);
     }
 
     /**
@@ -36,9 +82,319 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
+        ensureSynced();
         return squares[position.getRow()-1][position.getColumn()-1];
     }
 
+    // square based versions used by the move generator
+    ChessPiece getPiece(int square) {
+        ensureSynced();
+        return squares[square >>> 3][square & 7];
+    }
+
+    final void setPiece(int square, ChessPiece piece) {
+        ensureSynced();
+        int row = square >>> 3;
+        int col = square & 7;
+        long bit = Bitboards.bit(square);
+        // take whatever was there off the bitboards first
+        ChessPiece old = squares[row][col];
+        if (old != null) {
+            int index = Bitboards.pieceIndex(old);
+            pieceBitboards[index] &= ~bit;
+            colorOccupancy[old.getTeamColor().ordinal()] &= ~bit;
+            zobrist ^= Zobrist.key(index, square);
+            middlegame -= PieceSquareTables.middlegame(index, square);
+            endgame -= PieceSquareTables.endgame(index, square);
+            phase -= PieceSquareTables.phase(index);
+            if (listener != null) {
+                listener.pieceRemoved(old, square);
+            }
+        }
+        if (piece != null) {
+            int index = Bitboards.pieceIndex(piece);
+            pieceBitboards[index] |= bit;
+            colorOccupancy[piece.getTeamColor().ordinal()] |= bit;
+            zobrist ^= Zobrist.key(index, square);
+            middlegame += PieceSquareTables.middlegame(index, square);
+            endgame += PieceSquareTables.endgame(index, square);
+            phase += PieceSquareTables.phase(index);
+            if (listener != null) {
+                listener.pieceAdded(piece, square);
+            }
+        }
+        occupied = colorOccupancy[0] | colorOccupancy[1];
+        squares[row][col] = piece;
+        if (isKing(old)) {
+            updateKingSquare(old.getTeamColor());
+        }
+        if (isKing(piece)) {
+            updateKingSquare(piece.getTeamColor());
+        }
+    }
+
+    private static boolean isKing(ChessPiece piece) {
+        return piece != null && piece.getPieceType() == ChessPiece.PieceType.KING;
+    }
+
+    private void updateKingSquare(ChessGame.TeamColor color) {
+        long kings = pieceBitboards[Bitboards.pieceIndex(color, ChessPiece.PieceType.KING)];
+        kingSquares[color.ordinal()] = kings == 0 ? -1 : Long.numberOfTrailingZeros(kings);
+    }
+
+    /**
+     * @return the square of the team's king, or -1 if it has no king
+     */
+    int kingSquare(ChessGame.TeamColor color) {
+        ensureSynced();
+        return kingSquares[color.ordinal()];
+    }
+
+    /**
+     * Finds a team's king without searching the board
+     *
+     * @param color the team whose king to find
+     * @return where the king is, or null if that team has no king on the board
+     */
+    public ChessPosition getKingPosition(ChessGame.TeamColor color) {
+        int square = kingSquare(color);
+        return square < 0 ? null : ChessPosition.of(square);
+    }
+
+    /**
+     * Calls action for each of a team's pieces, visiting only the squares that
+     * team occupies rather than the whole board
+     *
+     * @param color  the team whose pieces to visit
+     * @param action called with each piece's position and the piece
+     */
+    public void forEachPiece(ChessGame.TeamColor color, BiConsumer<ChessPosition, ChessPiece> action) {
+        long pieces = occupancy(color);
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            action.accept(ChessPosition.of(square), getPiece(square));
+        }
+    }
+
+    /**
+     * @return how many pieces the team has on the board
+     */
+    public int pieceCount(ChessGame.TeamColor color) {
+        return Long.bitCount(occupancy(color));
+    }
+
+    /**
+     * @return bitboard of every square holding the given kind of piece
+     */
+    long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        ensureSynced();
+        return pieceBitboards[Bitboards.pieceIndex(color, type)];
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given team
+     */
+    long occupancy(ChessGame.TeamColor color) {
+        ensureSynced();
+        return colorOccupancy[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    long occupied() {
+        ensureSynced();
+        return occupied;
+    }
+
+    /**
+     * Gets the Zobrist key of the pieces on the board. It is updated as pieces
+     * are added, so reading it is free, and boards with the same pieces on the
+     * same squares always have the same key.
+     *
+     * @return 64-bit hash of the piece placement
+     */
+    public long zobristKey() {
+        ensureSynced();
+        return zobrist;
+    }
+
+    /**
+     * Checks whether any piece of the given team attacks a square, by looking
+     * outward from the square: slider rays, knight jumps, pawn diagonals and the
+     * king's neighborhood, each intersected with the matching enemy pieces
+     *
+     * @param square the square to test
+     * @param by     the attacking team
+     * @return True if a piece of that team could capture on the square
+     */
+    boolean isAttacked(int square, ChessGame.TeamColor by) {
+        ensureSynced();
+        int base = by.ordinal() * 6;
+        // a pawn of the other color on this square attacks exactly where attacking pawns would stand
+        if ((Attacks.pawn(ChessGame.opponent(by), square)
+                & pieceBitboards[base + ChessPiece.PieceType.PAWN.ordinal()]) != 0) {
+            return true;
+        }
+        if ((Attacks.knight(square) & pieceBitboards[base + ChessPiece.PieceType.KNIGHT.ordinal()]) != 0) {
+            return true;
+        }
+        if ((Attacks.king(square) & pieceBitboards[base + ChessPiece.PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
+        long queens = pieceBitboards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long diagonal = pieceBitboards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+        if (diagonal != 0 && (Attacks.bishop(square, occupied) & diagonal) != 0) {
+            return true;
+        }
+        long straight = pieceBitboards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        return straight != 0 && (Attacks.rook(square, occupied) & straight) != 0;
+    }
+
+    /**
+     * Finds every piece of the given team that attacks a square, treating the
+     * squares in occupied as the blockers. Passing a different occupancy than the
+     * board's lets callers ask "what if this piece weren't here".
+     *
+     * @return bitboard of the attacking pieces
+     */
+    long attackers(int square, ChessGame.TeamColor by, long occupied) {
+        ensureSynced();
+        int base = by.ordinal() * 6;
+        long queens = pieceBitboards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        return (Attacks.pawn(ChessGame.opponent(by), square) & pieceBitboards[base + ChessPiece.PieceType.PAWN.ordinal()])
+                | (Attacks.knight(square) & pieceBitboards[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (Attacks.king(square) & pieceBitboards[base + ChessPiece.PieceType.KING.ordinal()])
+                | (Attacks.bishop(square, occupied)
+                        & (pieceBitboards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens))
+                | (Attacks.rook(square, occupied)
+                        & (pieceBitboards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens));
+    }
+
+    // rebuild the bitboards if squares was swapped out from under us
+    private void ensureSynced() {
+        if (syncedSquares != squares) {
+            rebuildBitboards();
+        }
+    }
+
+    private void rebuildBitboards() {
+        Arrays.fill(pieceBitboards, 0L);
+        colorOccupancy[0] = 0L;
+        colorOccupancy[1] = 0L;
+        zobrist = 0L;
+        middlegame = 0;
+        endgame = 0;
+        phase = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = squares[square >>> 3][square & 7];
+            if (piece != null) {
+                int index = Bitboards.pieceIndex(piece);
+                pieceBitboards[index] |= Bitboards.bit(square);
+                colorOccupancy[piece.getTeamColor().ordinal()] |= Bitboards.bit(square);
+                zobrist ^= Zobrist.key(index, square);
+                middlegame += PieceSquareTables.middlegame(index, square);
+                endgame += PieceSquareTables.endgame(index, square);
+                phase += PieceSquareTables.phase(index);
+            }
+        }
+        occupied = colorOccupancy[0] | colorOccupancy[1];
+        updateKingSquare(ChessGame.TeamColor.WHITE);
+        updateKingSquare(ChessGame.TeamColor.BLACK);
+        syncedSquares = squares;
+    }
+
+    /**
+     * Scores the position from white's side, in centipawns: material plus how
+     * well placed each piece is, white's minus black's. The middlegame and
+     * endgame scores are blended by how much material is left, so the score
+     * slides from one to the other as pieces come off. Kept up to date as
+     * pieces move, so this costs the same however many pieces there are.
+     *
+     * @return the blended score, positive when white is better
+     */
+    public int evaluation() {
+        ensureSynced();
+        int weight = Math.min(phase, PieceSquareTables.FULL_PHASE);
+        return (middlegame * weight + endgame * (PieceSquareTables.FULL_PHASE - weight))
+                / PieceSquareTables.FULL_PHASE;
+    }
+
+    /**
+     * @return white's middlegame material and square score minus black's
+     */
+    public int middlegameScore() {
+        ensureSynced();
+        return middlegame;
+    }
+
+    /**
+     * @return white's endgame material and square score minus black's
+     */
+    public int endgameScore() {
+        ensureSynced();
+        return endgame;
+    }
+
+    /**
+     * How far the game has gone, from the material left: queens count 4, rooks
+     * 2, bishops and knights 1. 24 or more is a full middlegame, 0 is kings
+     * and pawns only.
+     *
+     * @return the game phase
+     */
+    public int gamePhase() {
+        ensureSynced();
+        return phase;
+    }
+
+    /**
+     * Told about every piece put on or taken off a board, so state kept outside
+     * the board (like a neural network's first layer) can follow the game a
+     * move at a time instead of looking at the whole board again. Squares are
+     * numbered 0 (row 1, column 1) to 63 (row 8, column 8), across each row.
+     */
+    public interface PieceListener {
+
+        void pieceAdded(ChessPiece piece, int square);
+
+        void pieceRemoved(ChessPiece piece, int square);
+    }
+
+    /**
+     * Starts telling a listener about pieces put on and taken off this board,
+     * replacing any listener from before. The listener is first told about
+     * every piece already on the board, as if they had just been added. Copies
+     * of the board don't keep the listener.
+     *
+     * @param listener the listener, or null to stop telling anyone
+     */
+    public void setPieceListener(PieceListener listener) {
+        ensureSynced();
+        this.listener = listener;
+        if (listener == null) {
+            return;
+        }
+        long pieces = occupied;
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            listener.pieceAdded(squares[square >>> 3][square & 7], square);
+        }
+    }
+
+    /**
+     * Takes every piece off the board
+     */
+    public void clear() {
+        long pieces = occupied();
+        while (pieces != 0) {
+            setPiece(Long.numberOfTrailingZeros(pieces), null);
+            pieces &= pieces - 1;
+        }
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
@@ -91,11 +447,17 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(squares, that.squares);
+        // different keys can't be the same position, equal keys still get the full compare.
+        // same pieces on the same squares means the same twelve bitboards
+        if (zobristKey() != that.zobristKey()) {
+            return false;
+        }
+        return Arrays.equals(pieceBitboards, that.pieceBitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        long key = zobristKey();
+        return (int) (key ^ (key >>> 32));
     }
 }
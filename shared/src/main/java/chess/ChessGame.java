@@ -1,8 +1,13 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
 
 /**
  * For a class that can manage a chess game, making moves on a board
@@ -10,17 +15,53 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
-
+@JsonAdapter(GameTypeAdapterFactory.class)
 public class ChessGame {
+    private static final int[] NO_MOVES = new int[0];
+
     private ChessBoard board;
     private TeamColor turn;
 
+    // one int per move made with doMove, packed as
+    // from (6 bits) | to (6) | moved piece + 1 (4) | captured piece + 1 (4) | turn before (1),
+    // empty until the first move so games nobody plays on (stored, copied, decoded) don't carry one
+    private transient int[] undoStack = NO_MOVES;
+    private transient int undoSize;
+    // reused by validMoves and makeMove so generating moves doesn't allocate
+    private transient MoveList scratchMoves = new MoveList();
+    private transient MoveGeneration moveGeneration = MoveGeneration.PIN_AWARE;
+    private transient LegalMoveGenerator legalMoveGenerator = new LegalMoveGenerator();
+    // answers validMoves for positions any game using it has already seen, null for no caching.
+    // every game starts out sharing the one process-wide LegalMoveCache.shared()
+    private transient LegalMoveCache moveCache = LegalMoveCache.shared();
+    // where to work out the next position's legal moves after makeMove, null to not bother
+    private transient Executor speculation;
+    // the latest worked out set, makeMove only trusts it if its key matches the position
+    private transient volatile LegalMoveSet nextMoves;
+    // status() for the position with key statusKey
+    private transient GameStatus status;
+    private transient long statusKey;
+
     public ChessGame() {
         board = new ChessBoard();
         board.resetBoard();
         turn = TeamColor.WHITE;
     }
 
+    /**
+     * Makes an independent copy of another game's position, whose turn it is
+     * and how it generates moves. The copy starts with nothing to undo.
+     *
+     * @param other the game to copy
+     */
+    public ChessGame(ChessGame other) {
+        board = new ChessBoard(other.board);
+        turn = other.turn;
+        moveGeneration = other.moveGeneration;
+        moveCache = other.moveCache;
+        speculation = other.speculation;
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -43,12 +84,74 @@ public class ChessGame {
             return false;
         }
         ChessGame chessGame = (ChessGame) o;
+        // cheap reject on the keys before comparing boards
+        if (board != null && chessGame.board != null && positionKey() != chessGame.positionKey()) {
+            return false;
+        }
         return Objects.equals(board, chessGame.board) && turn == chessGame.turn;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, turn);
+        if (board == null) {
+            return Objects.hash(board, turn);
+        }
+        long key = positionKey();
+        return (int) (key ^ (key >>> 32));
+    }
+
+    /**
+     * Gets a 64-bit Zobrist key for the position: the board's
+     * {@link ChessBoard#zobristKey() key} plus whose turn it is. Games with the same
+     * pieces on the same squares and the same team to move have the same key.
+     *
+     * @return 64-bit hash of the position
+     */
+    public long positionKey() {
+        return board.zobristKey() ^ (turn == TeamColor.BLACK ? Zobrist.BLACK_TO_MOVE : 0L);
+    }
+
+    /**
+     * Packs the position and whose turn it is into 34 bytes, about a hundredth of
+     * the size of the game written out field by field. Nothing else about the
+     * game (moves to undo, settings) is kept.
+     *
+     * @return the packed game, read back with {@link #fromBytes(byte[])}
+     */
+    public byte[] toBytes() {
+        return GameCodec.encode(this);
+    }
+
+    /**
+     * Reads a game packed by {@link #toBytes()}
+     *
+     * @param bytes the packed game
+     * @return a new game in the packed position
+     * @throws IllegalArgumentException if the bytes aren't a packed game
+     */
+    public static ChessGame fromBytes(byte[] bytes) {
+        return GameCodec.decode(bytes);
+    }
+
+    /**
+     * Packs the game like {@link #toBytes()}, as 46 URL-safe Base64 characters.
+     * This is also how Gson writes games.
+     *
+     * @return the packed game, read back with {@link #fromCompactString(String)}
+     */
+    public String toCompactString() {
+        return GameCodec.encodeText(this);
+    }
+
+    /**
+     * Reads a game packed by {@link #toCompactString()}
+     *
+     * @param text the packed game
+     * @return a new game in the packed position
+     * @throws IllegalArgumentException if the text isn't a packed game
+     */
+    public static ChessGame fromCompactString(String text) {
+        return GameCodec.decodeText(text);
     }
 
     /**
@@ -59,6 +162,81 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * The ways this game can work out which moves are legal. Both give the same
+     * moves, they only differ in speed.
+     */
+    public enum MoveGeneration {
+        /**
+         * Generate each piece's moves, then play each one and throw it out if it
+         * leaves the king in check
+         */
+        MAKE_AND_TEST,
+        /**
+         * Work out checks and pins once per position and only generate legal moves
+         */
+        PIN_AWARE
+    }
+
+    /**
+     * @return how this game works out legal moves
+     */
+    public MoveGeneration getMoveGeneration() {
+        return moveGeneration;
+    }
+
+    /**
+     * Chooses how this game works out legal moves, {@link MoveGeneration#PIN_AWARE} by default
+     *
+     * @param moveGeneration the generator to use
+     */
+    public void setMoveGeneration(MoveGeneration moveGeneration) {
+        this.moveGeneration = moveGeneration;
+    }
+
+    /**
+     * @return the cache {@link #validMoves(ChessPosition)} looks in first, or null if it doesn't
+     */
+    public LegalMoveCache getMoveCache() {
+        return moveCache;
+    }
+
+    /**
+     * Chooses the cache {@link #validMoves(ChessPosition)} looks in first, the
+     * {@link LegalMoveCache#shared() shared} one by default
+     *
+     * @param moveCache the cache to use, or null to always generate moves
+     */
+    public void setMoveCache(LegalMoveCache moveCache) {
+        this.moveCache = moveCache;
+    }
+
+    /**
+     * @return where the next position's legal moves get worked out after each
+     * {@link #makeMove}, or null if they don't
+     */
+    public Executor getSpeculation() {
+        return speculation;
+    }
+
+    /**
+     * Has {@link #makeMove} work out every legal move of the next team as soon as
+     * a move has been made, so checking the next incoming move is one lookup
+     * instead of generating that piece's moves and testing the king. The work is
+     * handed to an executor, so it can happen off the thread that made the move;
+     * pass {@code Runnable::run} to do it straight away on that thread.
+     * <p>
+     * The result is only used if the game is still in the position it was made
+     * for, so moves that arrive before it is ready, or after the board was
+     * changed some other way, are checked the normal way.
+     *
+     * @param executor where to work out the moves, or null to stop speculating
+     */
+    public void setSpeculation(Executor executor) {
+        speculation = executor;
+        nextMoves = null;
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -71,32 +249,137 @@ public class ChessGame {
         if (piece == null) {
             return null;
         }
-        // grabs moves collection from pieceMoves that we already made that has all the correct moves
-        Collection<ChessMove> moves = piece.pieceMoves(board, startPosition);
-        // new array of valid moves for the piece we are looking at, at the start position
-        Collection<ChessMove> validMoves = new ArrayList<>();
-        for (ChessMove move : moves) {
-            ChessPosition start = move.getStartPosition();
-            ChessPosition end = move.getEndPosition();
-            // piece we want to move to
-            var target = board.getPiece(end);
-
-            // we add the move as a test and see if it works out
-            //remove piece form start
-            board.addPiece(start, null);
-            //place piece at end pos
-            board.addPiece(end, piece);
-
-            // add move only if not put king in check
-            if (!isInCheck(piece.getTeamColor())) {
-                validMoves.add(move);
+        // generate the packed legal moves for the piece, and only then make ChessMoves out of them
+        MoveList moves = scratchMoves;
+        if (moveCache == null) {
+            validMoves(startPosition, moves);
+            return moves.toChessMoves(new ArrayList<>(moves.size()));
+        }
+        long key = positionKey();
+        int from = Bitboards.square(startPosition);
+        int[] cached = moveCache.get(key, from);
+        if (cached == null) {
+            validMoves(startPosition, moves);
+            cached = moves.toArray();
+            moveCache.put(key, from, cached);
+        }
+        Collection<ChessMove> validMoves = new ArrayList<>(cached.length);
+        for (int move : cached) {
+            validMoves.add(PackedMove.toChessMove(move));
+        }
+        return validMoves;
+    }
+
+    /**
+     * Fills a list with the valid moves of the piece at the given location, as
+     * {@link PackedMove packed moves}. Nothing is allocated once the list is big
+     * enough, so the same list can be reused call after call.
+     *
+     * @param startPosition the piece to get valid moves for
+     * @param moves         the list to fill, anything already in it is cleared. Left
+     *                      empty if there is no piece at startPosition
+     */
+    public void validMoves(ChessPosition startPosition, MoveList moves) {
+        moves.clear();
+        var piece = board.getPiece(startPosition);
+        if (piece == null) {
+            return;
+        }
+        int from = Bitboards.square(startPosition);
+        if (moveGeneration == MoveGeneration.PIN_AWARE) {
+            legalMoveGenerator.setUp(board, piece.getTeamColor());
+            legalMoveGenerator.generate(from, moves);
+            return;
+        }
+        MoveCalculator.generate(board, piece, from, -1L, moves);
+        // keep the legal ones, packed down to the front of the list
+        int kept = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (leavesKingSafe(move, piece.getTeamColor())) {
+                moves.set(kept++, move);
             }
-            // always undo the move
-            board.addPiece(start, piece);
-            board.addPiece(end, target);
+        }
+        moves.truncate(kept);
+    }
 
+    /**
+     * Hands each valid move of the piece at the given location to a callback, as
+     * a {@link PackedMove packed move}, without allocating. The callback must not
+     * change the game.
+     *
+     * @param startPosition the piece to get valid moves for
+     * @param sink          called once per valid move, never if there is no piece at startPosition
+     */
+    public void validMoves(ChessPosition startPosition, IntConsumer sink) {
+        MoveList moves = scratchMoves;
+        validMoves(startPosition, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            sink.accept(moves.get(i));
         }
-        return validMoves;
+    }
+
+    /**
+     * Fills a list with every legal move of the team whose turn it is, as
+     * {@link PackedMove packed moves}. Nothing is allocated once the list is
+     * big enough, so search and replay code can reuse one list per ply.
+     *
+     * @param moves the list to fill, anything already in it is cleared
+     */
+    public void legalMoves(MoveList moves) {
+        moves.clear();
+        TeamColor color = turn;
+        if (moveGeneration == MoveGeneration.PIN_AWARE) {
+            legalMoveGenerator.setUp(board, color);
+            legalMoveGenerator.generate(moves);
+            return;
+        }
+        MoveCalculator.generate(board, color, moves);
+        // keep the legal ones, packed down to the front of the list
+        int kept = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (leavesKingSafe(move, color)) {
+                moves.set(kept++, move);
+            }
+        }
+        moves.truncate(kept);
+    }
+
+    // we play the move as a test and see if our king is still safe afterwards
+    private boolean leavesKingSafe(int move, TeamColor color) {
+        doMove(move);
+        boolean safe = !isInCheck(color);
+        // always undo the move
+        undoMove();
+        return safe;
+    }
+
+    /**
+     * Gets the legal moves of the team whose turn it is one at a time. Moves are
+     * only generated, a piece at a time, as they are asked for, so a caller that
+     * stops early (is there any move? is this move legal?) only pays for what it
+     * looked at. The game must not change while the iterator is in use.
+     *
+     * @return iterator over the legal moves of the team to move
+     */
+    public LegalMoveIterator legalMoveIterator() {
+        return new LegalMoveIterator(board, turn, board.occupancy(turn));
+    }
+
+    /**
+     * Gets the legal moves of the piece on one square one at a time, see
+     * {@link #legalMoveIterator()}
+     *
+     * @param startPosition the piece to get moves for
+     * @return iterator over the piece's legal moves, empty if the square is empty
+     */
+    public LegalMoveIterator legalMoveIterator(ChessPosition startPosition) {
+        var piece = board.getPiece(startPosition);
+        if (piece == null) {
+            return new LegalMoveIterator(board, turn, 0L);
+        }
+        return new LegalMoveIterator(board, piece.getTeamColor(), Bitboards.bit(Bitboards.square(startPosition)));
     }
 
     /**
@@ -108,8 +391,6 @@ public class ChessGame {
     public void makeMove(ChessMove move) throws InvalidMoveException {
         var piece = board.getPiece(move.getStartPosition());
         var target = board.getPiece(move.getEndPosition());
-        ChessPosition start = move.getStartPosition();
-        ChessPosition end = move.getEndPosition();
 
         // 1) throw if no piece
         if (piece == null) {
@@ -120,45 +401,112 @@ public class ChessGame {
             throw new InvalidMoveException("That's the wrong team!");
 
         }
-        // 3) check if move is legal move for that piece
-        // we get moves from the valid moves collection
-        Collection<ChessMove> moves = validMoves(move.getStartPosition());
-        if (moves == null || !moves.contains(move)) {
-            throw new InvalidMoveException("That's not a real move!");
+        // already worked out every legal move here, so a legal move needs no more checking
+        // and anything else goes through the checks below to find out what is wrong with it
+        LegalMoveSet legal = nextMoves;
+        if (legal != null && legal.positionKey() == positionKey() && legal.contains(PackedMove.of(move))) {
+            doMove(move);
+            speculate();
+            return;
         }
-
-        // 4) cant take own piece
-        if (target != null) {
-            if (piece.getTeamColor() == target.getTeamColor()) {
-                throw new InvalidMoveException("You can't take your own piece.");
-            }
+        int from = Bitboards.square(move.getStartPosition());
+        int to = Bitboards.square(move.getEndPosition());
+        // 3) cant take own piece
+        if (target != null && target.getTeamColor() == piece.getTeamColor()) {
+            throw new InvalidMoveException("You can't take your own piece.");
         }
-        //remove piece form start
-        board.addPiece(start, null);
-        //place piece at end pos
-        board.addPiece(end, piece);
-        // 5) if piece is a pawn and on right squares, it can promote
-        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
-            if ((end.getRow() == 1 || end.getRow() == 8)) {
-                ChessPiece.PieceType promotion = move.getPromotionPiece();
-                ChessPiece promotedPiece = new ChessPiece(piece.getTeamColor(), promotion);
-                board.addPiece(end, promotedPiece);
-            }
+        // 4) check if move is a move that piece can make at all, just this move without generating the rest
+        if (!MoveCalculator.isMove(board, piece, from, to, move.getPromotionPiece())) {
+            throw new InvalidMoveException("That's not a real move!");
         }
-        // 6) cant move if puts king in check
-        if (isInCheck(turn)) {
-            board.addPiece(start, piece);
-            board.addPiece(end, target);
+        // 5) cant move if puts king in check, worked out from checks and pins so the move is only played once
+        legalMoveGenerator.setUp(board, turn);
+        if (!legalMoveGenerator.isLegal(from, to)) {
             throw new InvalidMoveException("That puts the king in check!");
         }
+        // 6) play it, which also promotes, switches turns and keeps the board's keys and king squares up to date
+        doMove(from, to, move.getPromotionPiece());
+        speculate();
+    }
+
+    // work out the new position's legal moves on a copy, so the game can carry on meanwhile
+    private void speculate() {
+        Executor executor = speculation;
+        if (executor == null) {
+            return;
+        }
+        var snapshot = new ChessBoard(board);
+        TeamColor color = turn;
+        long key = positionKey();
+        executor.execute(() -> {
+            var moves = new MoveList();
+            MoveGenerator.forCurrentThread().legalMoves(snapshot, color, moves);
+            nextMoves = new LegalMoveSet(key, moves);
+        });
+    }
+
+    /**
+     * Plays a move without checking that it is legal, promoting if it is a pawn
+     * move with a promotion piece, and hands the turn to the other team. The
+     * move can be taken back with {@link #undoMove()}.
+     *
+     * @param move chess move to perform, there must be a piece on its start
+     */
+    public void doMove(ChessMove move) {
+        doMove(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()),
+                move.getPromotionPiece());
+    }
+
+    /**
+     * Plays a {@link PackedMove packed move} the same way as {@link #doMove(ChessMove)}
+     *
+     * @param move packed chess move to perform, there must be a piece on its start
+     */
+    public void doMove(int move) {
+        doMove(PackedMove.from(move), PackedMove.to(move), PackedMove.promotionPiece(move));
+    }
+
+    private void doMove(int from, int to, ChessPiece.PieceType promotion) {
+        ChessPiece piece = board.getPiece(from);
+        ChessPiece captured = board.getPiece(to);
+        int movedIndex = Bitboards.pieceIndex(piece);
+        int capturedIndex = captured == null ? -1 : Bitboards.pieceIndex(captured);
+
+        if (undoSize == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, Math.max(64, undoSize * 2));
+        }
+        undoStack[undoSize++] = from | to << 6 | (movedIndex + 1) << 12 | (capturedIndex + 1) << 16
+                | turn.ordinal() << 20;
 
-        // 7) switch turns
-        if (turn == TeamColor.WHITE) {
-            turn = TeamColor.BLACK;
+        board.setPiece(from, null);
+        if (promotion != null && piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            board.setPiece(to, ChessPiece.of(piece.getTeamColor(), promotion));
+        } else {
+            board.setPiece(to, piece);
         }
-        else {
-            turn = TeamColor.WHITE;
+        turn = opponent(piece.getTeamColor());
+    }
+
+    /**
+     * Takes back the last move played with {@link #doMove(ChessMove)}, {@link #doMove(int)} or
+     * {@link #makeMove(ChessMove)}, restoring any captured piece, undoing any
+     * promotion and giving the turn back
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void undoMove() {
+        if (undoSize == 0) {
+            throw new IllegalStateException("There's no move to undo");
         }
+        int entry = undoStack[--undoSize];
+        int from = entry & 63;
+        int to = (entry >>> 6) & 63;
+        int movedIndex = ((entry >>> 12) & 15) - 1;
+        int capturedIndex = ((entry >>> 16) & 15) - 1;
+
+        board.setPiece(from, ChessPiece.of(movedIndex));
+        board.setPiece(to, capturedIndex < 0 ? null : ChessPiece.of(capturedIndex));
+        turn = ((entry >>> 20) & 1) == 0 ? TeamColor.WHITE : TeamColor.BLACK;
     }
 
     /**
@@ -168,37 +516,52 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
+        // the board keeps track of where the king is so we don't have to look for it
+        int kingSquare = board.kingSquare(teamColor);
+        if (kingSquare < 0) {
+            return false;
+        }
+        return board.isAttacked(kingSquare, opponent(teamColor));
+    }
 
-        Collection<ChessMove> otherTeamMoves = new ArrayList<>();
-        ChessPosition kingPosition = null;
-        // loop through all positions and get the moves of other pieces and see if it puts your king in check
-        for (int currentRow = 1; currentRow <= 8; currentRow++) {
-            for (int currentCol = 1; currentCol <= 8; currentCol++) {
-                var currentPosition = new ChessPosition(currentRow, currentCol);
-                var currentPiece = board.getPiece(currentPosition);
-                if (currentPiece == null) {
-                    continue;
-                }
-                // find the right king
-                if (currentPiece.getPieceType() == ChessPiece.PieceType.KING) {
-                    if (currentPiece.getTeamColor() == teamColor) {
-                        kingPosition = (new ChessPosition(currentRow,currentCol));
-                    }
-                }
-                // get the other team moves
-                if (currentPiece.getTeamColor() != teamColor) {
-                    otherTeamMoves.addAll(currentPiece.pieceMoves(board, currentPosition));
+    /**
+     * Determines if a square is attacked by the given team. Only the squares a
+     * rook, bishop, knight, pawn or king could attack from are looked at, so
+     * this doesn't generate any moves.
+     *
+     * @param position  the square to test
+     * @param attackers the team doing the attacking
+     * @return True if a piece of that team could capture on the square
+     */
+    public boolean isSquareAttacked(ChessPosition position, TeamColor attackers) {
+        return board.isAttacked(Bitboards.square(position), attackers);
+    }
 
-                }
-            }
+    /**
+     * Works out whether the team to move is in check, checkmate or stalemate in
+     * one go: one check test, then a search for a legal move that stops at the
+     * first one found. The answer is kept until the position changes, so asking
+     * again, or asking isInCheckmate and isInStalemate for the team to move, is free.
+     *
+     * @return the status of the team whose turn it is
+     */
+    public GameStatus status() {
+        long key = positionKey();
+        GameStatus cached = status;
+        if (cached != null && statusKey == key && cached.teamToMove() == turn) {
+            return cached;
         }
-        for (ChessMove move : otherTeamMoves) {
-            // .equals works and == doesn't here so take note, something to do with memory addresses maybe?
-            if (move.getEndPosition().equals(kingPosition)) {
-                return true;
-            }
+        boolean inCheck = isInCheck(turn);
+        boolean canMove = hasLegalMoves(turn);
+        GameStatus.State state;
+        if (canMove) {
+            state = inCheck ? GameStatus.State.CHECK : GameStatus.State.NORMAL;
+        } else {
+            state = inCheck ? GameStatus.State.CHECKMATE : GameStatus.State.STALEMATE;
         }
-        return false;
+        status = new GameStatus(state, turn);
+        statusKey = key;
+        return status;
     }
 
     /**
@@ -208,6 +571,9 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
+        if (teamColor == turn) {
+            return status().state() == GameStatus.State.CHECKMATE;
+        }
         return isInCheck(teamColor) && !hasLegalMoves(teamColor);
     }
 
@@ -219,24 +585,36 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
+        if (teamColor == turn) {
+            return status().state() == GameStatus.State.STALEMATE;
+        }
         return !isInCheck(teamColor) && !hasLegalMoves(teamColor);
     }
     private boolean hasLegalMoves(TeamColor teamColor) {
-        for (int r = 1; r <= 8; r++) {
-            for (int c = 1; c <= 8; c++) {
-                ChessPosition pos = new ChessPosition(r, c);
-                ChessPiece piece = board.getPiece(pos);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    var moves = validMoves(pos);
-                    if (moves != null && !moves.isEmpty()) {
-                        return true;
-                    }
+        if (moveGeneration == MoveGeneration.PIN_AWARE) {
+            legalMoveGenerator.setUp(board, teamColor);
+            return legalMoveGenerator.hasLegalMove(scratchMoves);
+        }
+        // only visit the team's own pieces, and stop at the first legal move
+        long pieces = board.occupancy(teamColor);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            scratchMoves.clear();
+            MoveCalculator.generate(board, board.getPiece(from), from, -1L, scratchMoves);
+            for (int i = 0; i < scratchMoves.size(); i++) {
+                if (leavesKingSafe(scratchMoves.get(i), teamColor)) {
+                    return true;
                 }
             }
         }
         return false;
     }
 
+    static TeamColor opponent(TeamColor teamColor) {
+        return teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+
     /**
      * Sets this game's chessboard with a given board
      *
@@ -245,6 +623,9 @@ public class ChessGame {
     public void setBoard(ChessBoard board) {
         //call reset board from ChessBoard to reset all positions to start
         this.board = board;
+        // moves on the old board can't be undone on this one
+        undoSize = 0;
+        status = null;
     }
 
     /**
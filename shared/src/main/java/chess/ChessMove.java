@@ -14,6 +14,32 @@ public class ChessMove {
     private final ChessPosition endPosition;
     private final ChessPiece.PieceType promotionPiece;
 
+    // shared moves indexed by (from * 64 + to) * 7 + promotion code, where the code is
+    // 0 for no promotion and the piece type ordinal + 1 otherwise. every from/to pair
+    // is filled in without promotion, plus the four promotions of each pawn step
+    // or capture onto the last row
+    private static final ChessMove[] MOVES = new ChessMove[64 * 64 * 7];
+    private static final ChessPiece.PieceType[] PROMOTIONS = {ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
+
+    static {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                MOVES[index(from, to, null)] = new ChessMove(ChessPosition.of(from), ChessPosition.of(to), null);
+                int fromRow = from / 8;
+                int toRow = to / 8;
+                boolean whitePromotion = fromRow == 6 && toRow == 7;
+                boolean blackPromotion = fromRow == 1 && toRow == 0;
+                if ((whitePromotion || blackPromotion) && Math.abs(from % 8 - to % 8) <= 1) {
+                    for (var promotion : PROMOTIONS) {
+                        MOVES[index(from, to, promotion)] = new ChessMove(ChessPosition.of(from),
+                                ChessPosition.of(to), promotion);
+                    }
+                }
+            }
+        }
+    }
+
     public ChessMove(ChessPosition startPosition, ChessPosition endPosition,
                      ChessPiece.PieceType promotionPiece) {
         this.startPosition = startPosition;
@@ -21,6 +47,34 @@ public class ChessMove {
         this.promotionPiece = promotionPiece;
     }
 
+    /**
+     * Gets the shared instance for a move instead of allocating a new one
+     *
+     * @return the canonical move, or a new one if the move isn't in the table
+     */
+    public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition,
+                               ChessPiece.PieceType promotionPiece) {
+        if (!onBoard(startPosition) || !onBoard(endPosition)) {
+            return new ChessMove(startPosition, endPosition, promotionPiece);
+        }
+        ChessMove move = MOVES[index(Bitboards.square(startPosition), Bitboards.square(endPosition), promotionPiece)];
+        return move != null ? move : new ChessMove(startPosition, endPosition, promotionPiece);
+    }
+
+    static ChessMove of(int from, int to, ChessPiece.PieceType promotionPiece) {
+        ChessMove move = MOVES[index(from, to, promotionPiece)];
+        return move != null ? move : new ChessMove(ChessPosition.of(from), ChessPosition.of(to), promotionPiece);
+    }
+
+    private static int index(int from, int to, ChessPiece.PieceType promotionPiece) {
+        return (from * 64 + to) * 7 + (promotionPiece == null ? 0 : promotionPiece.ordinal() + 1);
+    }
+
+    private static boolean onBoard(ChessPosition position) {
+        return position != null && position.getRow() >= 1 && position.getRow() <= 8
+                && position.getColumn() >= 1 && position.getColumn() <= 8;
+    }
+
     /**
      * @return ChessPosition of starting location
      */
@@ -52,6 +106,9 @@ public class ChessMove {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -62,6 +119,8 @@ public class ChessMove {
 
     @Override
     public int hashCode() {
-        return Objects.hash(startPosition, endPosition, promotionPiece);
+        // same numbering as the shared move table, unique for every move on the board
+        return (Objects.hashCode(startPosition) * 64 + Objects.hashCode(endPosition)) * 7
+                + (promotionPiece == null ? 0 : promotionPiece.ordinal() + 1);
     }
 }
@@ -14,13 +14,42 @@ public class ChessPiece {
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
+    // one shared piece per color and type, indexed like the board's bitboards
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (var color : ChessGame.TeamColor.values()) {
+            for (var type : PieceType.values()) {
+                PIECES[Bitboards.pieceIndex(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.pieceColor = pieceColor;
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance for a piece instead of allocating a new one
+     *
+     * @param pieceColor which team the piece belongs to
+     * @param type       which type of piece it is
+     * @return the canonical piece
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[Bitboards.pieceIndex(pieceColor, type)];
+    }
+
+    static ChessPiece of(int index) {
+        return PIECES[index];
+    }
+
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -30,7 +59,11 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type);
+        // 0 to 11 for real pieces, same numbering as the bitboards
+        if (pieceColor == null || type == null) {
+            return Objects.hash(pieceColor, type);
+        }
+        return Bitboards.pieceIndex(pieceColor, type);
     }
 
     /**
@@ -70,4 +103,17 @@ public class ChessPiece {
         MoveCalculator calculator = new MoveCalculator(board, this, myPosition);
         return calculator.calculateMoves();
     }
+
+    /**
+     * Fills a list with the moves this piece could make from a position as
+     * {@link PackedMove packed moves}, like {@link #pieceMoves(ChessBoard, ChessPosition)}
+     * but without allocating once the list is big enough. Does not take into
+     * account moves that are illegal due to leaving the king in danger.
+     *
+     * @param moves the list to fill, anything already in it is cleared
+     */
+    public void pieceMoves(ChessBoard board, ChessPosition myPosition, MoveList moves) {
+        moves.clear();
+        MoveCalculator.generate(board, this, Bitboards.square(myPosition), -1L, moves);
+    }
 }
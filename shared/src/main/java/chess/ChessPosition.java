@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.Objects;
-
 /**
  * Represents a single square position on a chess board
  * <p>
@@ -13,11 +11,38 @@ public class ChessPosition {
     private final int row;
     private final int col;
 
+    // the 64 on-board positions, indexed by square (see Bitboards)
+    private static final ChessPosition[] POSITIONS = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            POSITIONS[square] = new ChessPosition(square / 8 + 1, square % 8 + 1);
+        }
+    }
+
     public ChessPosition(int row, int col) {
         this.row = row;
         this.col = col;
     }
 
+    /**
+     * Gets the shared instance for a position instead of allocating a new one
+     *
+     * @param row 1-based row
+     * @param col 1-based column
+     * @return the canonical position, or a new one if it is off the board
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return POSITIONS[(row - 1) * 8 + (col - 1)];
+    }
+
+    static ChessPosition of(int square) {
+        return POSITIONS[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -41,6 +66,9 @@ public class ChessPosition {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -50,6 +78,7 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        // the square index, which is unique for every position on the board
+        return (row - 1) * 8 + (col - 1);
     }
 }
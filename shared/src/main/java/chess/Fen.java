@@ -0,0 +1,241 @@
+package chess;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation, for example the
+ * starting position {@value #START}.
+ * <p>
+ * Only the first two fields mean anything here, the pieces and whose turn it
+ * is. The rules have no castling or en passant, so those fields are skipped on
+ * the way in and written as "-" on the way out. The move counters are skipped
+ * too and written as "0 1". Everything after the turn is optional when reading.
+ * <p>
+ * Reading goes straight from the characters or bytes onto an existing game,
+ * with no strings, splitting or regular expressions in between, so bulk imports
+ * can read a buffer of positions, one per line, without allocating.
+ */
+public final class Fen {
+
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    // FEN letter for each piece board index, white uppercase
+    private static final char[] LETTERS = "KQBNRPkqbnrp".toCharArray();
+    // everything written after whose turn it is, for the ByteBuffer writer
+    private static final byte[] TAIL = {' ', '-', ' ', '-', ' ', '0', ' ', '1', '\n'};
+
+    private Fen() {}
+
+    /**
+     * Reads a position into a new game
+     *
+     * @throws IllegalArgumentException if the text isn't a position
+     */
+    public static ChessGame parse(CharSequence fen) {
+        var game = new ChessGame();
+        read(fen, game);
+        return game;
+    }
+
+    /**
+     * Sets a game up at a position, replacing whatever was on its board. The
+     * game's board is reused and it starts with nothing to undo.
+     *
+     * @throws IllegalArgumentException if the text isn't a position, the game is
+     *                                  left in an unspecified position
+     */
+    public static void read(CharSequence fen, ChessGame game) {
+        read(fen, null, 0, fen.length(), game);
+    }
+
+    /**
+     * Reads the position on the next line of a buffer of ASCII text into a game,
+     * like {@link #read(CharSequence, ChessGame)}, skipping blank lines. The buffer's
+     * position is moved past the line.
+     *
+     * @return false if the buffer had no more positions, leaving the game alone
+     * @throws IllegalArgumentException if the line isn't a position
+     */
+    public static boolean read(ByteBuffer in, ChessGame game) {
+        int start = in.position();
+        int limit = in.limit();
+        // skip blank lines
+        while (start < limit && isSpace(in.get(start))) {
+            start++;
+        }
+        if (start == limit) {
+            in.position(limit);
+            return false;
+        }
+        int end = start;
+        while (end < limit && in.get(end) != '\n' && in.get(end) != '\r') {
+            end++;
+        }
+        in.position(end < limit ? end + 1 : end);
+        read(null, in, start, end, game);
+        return true;
+    }
+
+    // reads from whichever of text or bytes isn't null, between start and end
+    private static void read(CharSequence text, ByteBuffer bytes, int start, int end, ChessGame game) {
+        ChessBoard board = game.getBoard();
+        board.clear();
+        int i = start;
+        int row = 8;
+        int col = 1;
+        // pieces, row 8 first, each row a to h
+        for (; i < end; i++) {
+            char c = charAt(text, bytes, i);
+            if (c == ' ') {
+                break;
+            }
+            if (c == '/') {
+                if (col != 9 || row == 1) {
+                    throw error(text, bytes, start, end, i, "row " + row + " doesn't have 8 squares");
+                }
+                row--;
+                col = 1;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                int index = pieceIndex(c);
+                if (index < 0 || col > 8) {
+                    throw error(text, bytes, start, end, i, "unexpected '" + c + "'");
+                }
+                board.setPiece(Bitboards.square(row, col), ChessPiece.of(index));
+                col++;
+            }
+            if (col > 9) {
+                throw error(text, bytes, start, end, i, "row " + row + " has more than 8 squares");
+            }
+        }
+        if (row != 1 || col != 9) {
+            throw error(text, bytes, start, end, i, "expected 8 rows of 8 squares");
+        }
+        // whose turn, white if left out
+        while (i < end && charAt(text, bytes, i) == ' ') {
+            i++;
+        }
+        ChessGame.TeamColor turn = ChessGame.TeamColor.WHITE;
+        if (i < end) {
+            char c = charAt(text, bytes, i);
+            if (c == 'b') {
+                turn = ChessGame.TeamColor.BLACK;
+            } else if (c != 'w') {
+                throw error(text, bytes, start, end, i, "expected 'w' or 'b' to move");
+            }
+            if (i + 1 < end && charAt(text, bytes, i + 1) != ' ') {
+                throw error(text, bytes, start, end, i + 1, "expected 'w' or 'b' to move");
+            }
+        }
+        // castling, en passant and the counters don't apply here
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+    }
+
+    /**
+     * Writes a game's position
+     */
+    public static String write(ChessGame game) {
+        var out = new StringBuilder(90);
+        write(game, out);
+        return out.toString();
+    }
+
+    /**
+     * Writes a game's position onto the end of some text, with no line ending
+     */
+    public static void write(ChessGame game, Appendable out) {
+        try {
+            ChessBoard board = game.getBoard();
+            for (int row = 8; row >= 1; row--) {
+                int empty = 0;
+                for (int col = 1; col <= 8; col++) {
+                    ChessPiece piece = board.getPiece(Bitboards.square(row, col));
+                    if (piece == null) {
+                        empty++;
+                        continue;
+                    }
+                    if (empty > 0) {
+                        out.append((char) ('0' + empty));
+                        empty = 0;
+                    }
+                    out.append(LETTERS[Bitboards.pieceIndex(piece)]);
+                }
+                if (empty > 0) {
+                    out.append((char) ('0' + empty));
+                }
+                if (row > 1) {
+                    out.append('/');
+                }
+            }
+            out.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w" : " b").append(" - - 0 1");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a game's position as ASCII into a buffer followed by a newline,
+     * moving the buffer's position past it
+     *
+     * @throws java.nio.BufferOverflowException if the buffer fills up
+     */
+    public static void write(ChessGame game, ByteBuffer out) {
+        ChessBoard board = game.getBoard();
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(Bitboards.square(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    out.put((byte) ('0' + empty));
+                    empty = 0;
+                }
+                out.put((byte) LETTERS[Bitboards.pieceIndex(piece)]);
+            }
+            if (empty > 0) {
+                out.put((byte) ('0' + empty));
+            }
+            if (row > 1) {
+                out.put((byte) '/');
+            }
+        }
+        out.put((byte) ' ').put((byte) (game.getTeamTurn() == ChessGame.TeamColor.WHITE ? 'w' : 'b'));
+        for (int i = 0; i < TAIL.length; i++) {
+            out.put(TAIL[i]);
+        }
+    }
+
+    private static char charAt(CharSequence text, ByteBuffer bytes, int i) {
+        return text != null ? text.charAt(i) : (char) (bytes.get(i) & 0xff);
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static int pieceIndex(char c) {
+        for (int i = 0; i < LETTERS.length; i++) {
+            if (LETTERS[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // only builds the message once something has gone wrong
+    private static IllegalArgumentException error(CharSequence text, ByteBuffer bytes, int start, int end,
+                                                  int at, String problem) {
+        var line = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            line.append(charAt(text, bytes, i));
+        }
+        return new IllegalArgumentException("Bad FEN at character " + (at - start) + ", " + problem + ": " + line);
+    }
+}
@@ -0,0 +1,75 @@
+package chess;
+
+import java.util.Base64;
+
+/**
+ * Packs a {@link ChessGame} into 34 bytes for storage and sending over the wire.
+ * <p>
+ * Byte 0 is the format version. Bytes 1-32 hold the squares two to a byte, a1
+ * first and the lower-numbered square in the low 4 bits, each as 0 for empty or
+ * the piece's board index + 1 (white king, queen, bishop, knight, rook, pawn
+ * are 1-6, black 7-12). Byte 33 holds whose turn it is, 0 for white and 1 for
+ * black. The rules here have no castling or en passant, so nothing else is
+ * needed to carry on the game.
+ * <p>
+ * The text form is the same bytes in URL-safe Base64 without padding.
+ */
+final class GameCodec {
+
+    static final int VERSION = 1;
+    static final int LENGTH = 34;
+
+    private static final Base64.Encoder TEXT_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder TEXT_DECODER = Base64.getUrlDecoder();
+
+    private GameCodec() {}
+
+    static byte[] encode(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        byte[] bytes = new byte[LENGTH];
+        bytes[0] = VERSION;
+        for (int sq = 0; sq < 64; sq++) {
+            ChessPiece piece = board.getPiece(sq);
+            if (piece != null) {
+                bytes[1 + (sq >>> 1)] |= (byte) ((Bitboards.pieceIndex(piece) + 1) << ((sq & 1) * 4));
+            }
+        }
+        bytes[LENGTH - 1] = (byte) game.getTeamTurn().ordinal();
+        return bytes;
+    }
+
+    static ChessGame decode(byte[] bytes) {
+        if (bytes.length != LENGTH) {
+            throw new IllegalArgumentException("Expected " + LENGTH + " bytes but got " + bytes.length);
+        }
+        if (bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Unknown game format version " + bytes[0]);
+        }
+        var board = new ChessBoard();
+        for (int sq = 0; sq < 64; sq++) {
+            int code = (bytes[1 + (sq >>> 1)] >>> ((sq & 1) * 4)) & 15;
+            if (code > 12) {
+                throw new IllegalArgumentException("Bad piece code " + code + " on square " + sq);
+            }
+            if (code != 0) {
+                board.addPiece(ChessPosition.of(sq), ChessPiece.of(code - 1));
+            }
+        }
+        int turn = bytes[LENGTH - 1];
+        if (turn != 0 && turn != 1) {
+            throw new IllegalArgumentException("Bad turn " + turn);
+        }
+        var game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(ChessGame.TeamColor.values()[turn]);
+        return game;
+    }
+
+    static String encodeText(ChessGame game) {
+        return TEXT_ENCODER.encodeToString(encode(game));
+    }
+
+    static ChessGame decodeText(String text) {
+        return decode(TEXT_DECODER.decode(text));
+    }
+}
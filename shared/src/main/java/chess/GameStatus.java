@@ -0,0 +1,40 @@
+package chess;
+
+/**
+ * Where a game stands for the team whose turn it is, everything a client needs
+ * to be told after a move
+ *
+ * @param state      whether the team to move is in check, checkmate or stalemate
+ * @param teamToMove whose turn it is
+ */
+public record GameStatus(State state, ChessGame.TeamColor teamToMove) {
+
+    /**
+     * The possible situations for the team to move
+     */
+    public enum State {
+        /**
+         * Not in check and has a legal move
+         */
+        NORMAL,
+        /**
+         * In check but has a legal move
+         */
+        CHECK,
+        /**
+         * In check with no legal move
+         */
+        CHECKMATE,
+        /**
+         * Not in check but has no legal move
+         */
+        STALEMATE
+    }
+
+    /**
+     * @return True if the game can't go on
+     */
+    public boolean isGameOver() {
+        return state == State.CHECKMATE || state == State.STALEMATE;
+    }
+}
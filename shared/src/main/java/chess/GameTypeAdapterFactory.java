@@ -0,0 +1,56 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Has Gson write a {@link ChessGame} as its {@link ChessGame#toCompactString() compact text}
+ * instead of the board's squares field by field. Games written the old way, as
+ * an object, still read back, so stored games and older clients keep working.
+ */
+final class GameTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != ChessGame.class) {
+            return null;
+        }
+        // the plain field by field adapter, for reading the old form
+        TypeAdapter<ChessGame> fields = gson.getDelegateAdapter(this, TypeToken.get(ChessGame.class));
+        return (TypeAdapter<T>) new TypeAdapter<ChessGame>() {
+            @Override
+            public void write(JsonWriter out, ChessGame game) throws IOException {
+                if (game == null) {
+                    out.nullValue();
+                } else {
+                    out.value(game.toCompactString());
+                }
+            }
+
+            @Override
+            public ChessGame read(JsonReader in) throws IOException {
+                JsonToken token = in.peek();
+                if (token == JsonToken.NULL) {
+                    in.nextNull();
+                    return null;
+                }
+                if (token == JsonToken.BEGIN_OBJECT) {
+                    return fields.read(in);
+                }
+                try {
+                    return ChessGame.fromCompactString(in.nextString());
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Bad compact game: " + e.getMessage(), e);
+                }
+            }
+        };
+    }
+}
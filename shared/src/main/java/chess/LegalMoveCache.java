@@ -0,0 +1,220 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of the legal moves of one piece in one position, shared by
+ * every game that uses it. Clients ask for the same piece's moves in the same
+ * position over and over (hover highlights, retries, spectators), and with
+ * this in front of {@link ChessGame#validMoves(ChessPosition)} only the first
+ * ask pays for generating them.
+ * <p>
+ * Entries are keyed by {@link ChessGame#positionKey()}, which covers the pieces
+ * and whose turn it is, plus the square. Legal moves here only ever depend on
+ * the position, never on how the game got there, so a position seen in one
+ * game answers for every other game.
+ * <p>
+ * The entries live in an open-addressing table probed on the key and square
+ * themselves, so lookups neither lock nor allocate. The table is kept at most
+ * half full, so a probe always ends at an empty slot. A lookup racing an
+ * eviction can miss an entry that is being moved; the caller then generates
+ * the moves itself, which gives the same answer.
+ * <p>
+ * When the cache is full, adding an entry evicts with the clock algorithm: a
+ * hand sweeps round the entries, giving each one that has been hit since the
+ * last sweep a second chance and throwing out the first one that hasn't.
+ */
+public final class LegalMoveCache {
+
+    private static final LegalMoveCache SHARED = new LegalMoveCache(16384);
+
+    private static final class Entry {
+        final long position;
+        final int square;
+        final int[] moves;
+        // set by every hit, cleared by the clock hand going past
+        volatile boolean referenced;
+
+        Entry(long position, int square, int[] moves) {
+            this.position = position;
+            this.square = square;
+            this.moves = moves;
+        }
+    }
+
+    // open addressing with linear probing, a power of two at least twice the capacity
+    private final AtomicReferenceArray<Entry> table;
+    private final int shift;
+    // the clock, slots hold the entries in the table and the hand is the next slot to look at
+    private final Entry[] slots;
+    private int hand;
+    private volatile int size;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity the most entries to hold at once
+     */
+    public LegalMoveCache(int capacity) {
+        if (capacity < 1 || capacity > 1 << 28) {
+            throw new IllegalArgumentException("Cache capacity must be between 1 and 2^28");
+        }
+        int length = Integer.highestOneBit(capacity) << 2;
+        table = new AtomicReferenceArray<>(length);
+        shift = 64 - Integer.numberOfTrailingZeros(length);
+        slots = new Entry[capacity];
+    }
+
+    /**
+     * @return the cache games use unless told otherwise
+     */
+    public static LegalMoveCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Gets the cached moves of the piece on a square
+     *
+     * @param positionKey the position's {@link ChessGame#positionKey() key}
+     * @return the {@link PackedMove packed moves}, which must not be changed, or
+     * null if they aren't cached
+     */
+    int[] get(long positionKey, int square) {
+        int mask = table.length() - 1;
+        for (int i = home(positionKey, square); ; i = (i + 1) & mask) {
+            Entry entry = table.get(i);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.position == positionKey && entry.square == square) {
+                entry.referenced = true;
+                hits.increment();
+                return entry.moves;
+            }
+        }
+    }
+
+    /**
+     * Caches the moves of the piece on a square, evicting an older entry if full
+     *
+     * @param moves the {@link PackedMove packed moves}, kept as they are
+     */
+    synchronized void put(long positionKey, int square, int[] moves) {
+        if (indexOf(positionKey, square) >= 0) {
+            return;
+        }
+        int count = size;
+        // move the hand on until it finds a free slot or one whose entry hasn't been hit
+        while (slots[hand] != null) {
+            Entry entry = slots[hand];
+            if (!entry.referenced) {
+                remove(indexOf(entry.position, entry.square));
+                count--;
+                evictions.increment();
+                break;
+            }
+            entry.referenced = false;
+            hand = (hand + 1) % slots.length;
+        }
+        var entry = new Entry(positionKey, square, moves);
+        slots[hand] = entry;
+        int mask = table.length() - 1;
+        int i = home(positionKey, square);
+        while (table.get(i) != null) {
+            i = (i + 1) & mask;
+        }
+        table.set(i, entry);
+        size = count + 1;
+        hand = (hand + 1) % slots.length;
+    }
+
+    // where a key's probe starts, from the high bits of a multiplicative hash
+    private int home(long positionKey, int square) {
+        return (int) (((positionKey ^ square) * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    // the table index holding a key, or -1, only called under the lock
+    private int indexOf(long positionKey, int square) {
+        int mask = table.length() - 1;
+        for (int i = home(positionKey, square); ; i = (i + 1) & mask) {
+            Entry entry = table.get(i);
+            if (entry == null) {
+                return -1;
+            }
+            if (entry.position == positionKey && entry.square == square) {
+                return i;
+            }
+        }
+    }
+
+    // empties a table slot, shifting later entries of the probe run back so no probe ends early
+    private void remove(int index) {
+        int mask = table.length() - 1;
+        int hole = index;
+        for (int i = (index + 1) & mask; ; i = (i + 1) & mask) {
+            Entry entry = table.get(i);
+            if (entry == null) {
+                break;
+            }
+            // an entry can fill the hole unless its probe starts after the hole
+            int home = home(entry.position, entry.square);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                table.set(hole, entry);
+                hole = i;
+            }
+        }
+        table.set(hole, null);
+    }
+
+    /**
+     * Empties the cache, the counters keep counting
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, null);
+        }
+        Arrays.fill(slots, null);
+        hand = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return hits over all lookups so far, 0 before the first lookup
+     */
+    public double hitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    @Override
+    public String toString() {
+        return "LegalMoveCache{size=" + size() + ", capacity=" + capacity() + ", hits=" + hitCount()
+                + ", misses=" + missCount() + ", evictions=" + evictionCount() + '}';
+    }
+}
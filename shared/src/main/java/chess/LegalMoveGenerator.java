@@ -0,0 +1,157 @@
+package chess;
+
+/**
+ * Generates only legal moves, without playing each candidate and asking
+ * whether the king is in check afterwards.
+ * <p>
+ * Everything that makes a move illegal is worked out once per position in
+ * {@link #setUp}: which enemy pieces give check, which of our pieces are pinned
+ * to the king, and the squares a non-king move has to land on to deal with a
+ * check. Each piece's moves are then masked down to the squares that keep the
+ * king safe, and king moves are tested against the enemy's attacks with the
+ * king lifted off the board so it can't hide behind itself.
+ * <p>
+ * Moves can be generated a piece at a time, so callers that only need the
+ * first few moves don't pay for the rest. One generator is reused position
+ * after position, it holds no state that needs clearing between them.
+ */
+final class LegalMoveGenerator {
+
+    private ChessBoard board;
+    private ChessGame.TeamColor color;
+    // our king's square, or -1 if we have none and nothing can be illegal
+    private int king;
+    // squares a non-king move has to land on, everything outside a check
+    private long evasions;
+    // our pieces stuck on the line between an enemy slider and our king
+    private long pinned;
+
+    /**
+     * Works out checks and pins for a team. Has to be called again whenever the
+     * board changes before generating more moves.
+     */
+    void setUp(ChessBoard board, ChessGame.TeamColor color) {
+        this.board = board;
+        this.color = color;
+        king = board.kingSquare(color);
+        if (king < 0) {
+            evasions = -1L;
+            pinned = 0;
+            return;
+        }
+        long checkers = board.attackers(king, ChessGame.opponent(color), board.occupied());
+        if (Long.bitCount(checkers) > 1) {
+            // in double check only the king can move
+            evasions = 0;
+        } else if (checkers != 0) {
+            // in single check, capture the checker or block between it and the king
+            evasions = checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+        } else {
+            evasions = -1L;
+        }
+        pinned = pinnedPieces();
+    }
+
+    /**
+     * Writes every legal move of the team into a list
+     */
+    void generate(MoveList moves) {
+        long pieces = board.occupancy(color);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            generate(from, moves);
+        }
+    }
+
+    /**
+     * Writes the legal moves of the team's piece on one square into a list
+     */
+    void generate(int from, MoveList moves) {
+        if (from == king) {
+            kingMoves(moves);
+            return;
+        }
+        long allowed = evasions;
+        if ((pinned & Bitboards.bit(from)) != 0) {
+            // a pinned piece can only slide along the pin
+            allowed &= Attacks.line(king, from);
+        }
+        if (allowed != 0) {
+            MoveCalculator.generate(board, board.getPiece(from), from, allowed, moves);
+        }
+    }
+
+    /**
+     * Checks whether one of the team's moves keeps its king safe, without
+     * playing it. The move has to be one the piece can make at all, see
+     * {@link MoveCalculator#isMove}.
+     */
+    boolean isLegal(int from, int to) {
+        if (from == king) {
+            return board.attackers(to, ChessGame.opponent(color), board.occupied() ^ Bitboards.bit(king)) == 0;
+        }
+        long allowed = evasions;
+        if ((pinned & Bitboards.bit(from)) != 0) {
+            allowed &= Attacks.line(king, from);
+        }
+        return (allowed & Bitboards.bit(to)) != 0;
+    }
+
+    /**
+     * Checks whether the team has any legal move, going a piece at a time and
+     * stopping at the first piece with one. The moves found are left in scratch.
+     */
+    boolean hasLegalMove(MoveList scratch) {
+        scratch.clear();
+        // the king first, it is the only piece that can move in double check
+        if (king >= 0) {
+            kingMoves(scratch);
+        }
+        long pieces = board.occupancy(color);
+        while (pieces != 0 && scratch.isEmpty()) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            if (from != king) {
+                generate(from, scratch);
+            }
+        }
+        return !scratch.isEmpty();
+    }
+
+    // the king can go anywhere the enemy wouldn't attack once it has stepped off its square
+    private void kingMoves(MoveList moves) {
+        ChessGame.TeamColor them = ChessGame.opponent(color);
+        long kingBit = Bitboards.bit(king);
+        long occupied = board.occupied() ^ kingBit;
+        long targets = Attacks.king(king) & ~board.occupancy(color);
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (board.attackers(to, them, occupied) == 0) {
+                moves.add(PackedMove.of(king, to, null));
+            }
+        }
+    }
+
+    private long pinnedPieces() {
+        ChessGame.TeamColor them = ChessGame.opponent(color);
+        long queens = board.pieces(them, ChessPiece.PieceType.QUEEN);
+        long enemies = board.occupancy(them);
+        // enemy sliders that would see the king if none of our pieces were in the way
+        long snipers = (Attacks.rook(king, enemies) & (board.pieces(them, ChessPiece.PieceType.ROOK) | queens))
+                | (Attacks.bishop(king, enemies) & (board.pieces(them, ChessPiece.PieceType.BISHOP) | queens));
+        long occupied = board.occupied();
+        long own = board.occupancy(color);
+        long result = 0;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Attacks.between(king, sniper) & occupied;
+            if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                result |= blockers;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package chess;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Walks the legal moves of a position a piece at a time. Checks and pins are
+ * worked out when the iterator is made, and each piece's moves are only
+ * generated once the moves before them have been used up, so stopping after
+ * the first move costs about one piece's worth of generation.
+ * <p>
+ * {@link #nextPacked()} hands out {@link PackedMove packed moves} with no
+ * allocation, {@link #next()} hands out the shared {@link ChessMove} for each.
+ * The board must not change while the iterator is in use.
+ */
+public final class LegalMoveIterator implements Iterator<ChessMove> {
+
+    private final LegalMoveGenerator generator = new LegalMoveGenerator();
+    // the current piece's moves, and how many of them have been handed out
+    private final MoveList buffer = new MoveList(32);
+    private int index;
+    // squares of pieces whose moves haven't been generated yet
+    private long remaining;
+
+    LegalMoveIterator(ChessBoard board, ChessGame.TeamColor color, long pieces) {
+        generator.setUp(board, color);
+        remaining = pieces;
+    }
+
+    @Override
+    public boolean hasNext() {
+        // refill from the next piece until one has a move or we run out of pieces
+        while (index == buffer.size() && remaining != 0) {
+            int from = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            buffer.clear();
+            index = 0;
+            generator.generate(from, buffer);
+        }
+        return index < buffer.size();
+    }
+
+    /**
+     * @return the next legal move as a packed int
+     * @throws NoSuchElementException if there are no more moves
+     */
+    public int nextPacked() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return buffer.get(index++);
+    }
+
+    @Override
+    public ChessMove next() {
+        return PackedMove.toChessMove(nextPacked());
+    }
+}
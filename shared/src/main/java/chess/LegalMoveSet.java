@@ -0,0 +1,34 @@
+package chess;
+
+/**
+ * Every legal move of the team to move in one position, as a bitset indexed by
+ * {@link PackedMove packed move}, so checking a move is one array read. Made
+ * ahead of time by {@link ChessGame} when speculation is on, and never changed
+ * once made, so it can be handed between threads.
+ */
+final class LegalMoveSet {
+
+    // packed moves fit in 15 bits
+    private final long[] bits = new long[(1 << 15) / 64];
+    private final long positionKey;
+
+    /**
+     * @param positionKey the {@link ChessGame#positionKey() key} of the position the moves are for
+     * @param moves       the position's legal moves
+     */
+    LegalMoveSet(long positionKey, MoveList moves) {
+        this.positionKey = positionKey;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            bits[move >>> 6] |= 1L << move;
+        }
+    }
+
+    long positionKey() {
+        return positionKey;
+    }
+
+    boolean contains(int move) {
+        return (bits[move >>> 6] & (1L << move)) != 0;
+    }
+}
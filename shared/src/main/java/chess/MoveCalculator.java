@@ -5,184 +5,154 @@ import java.util.ArrayList;
 public class MoveCalculator {
     private final ChessBoard board;
     private final ChessPiece piece;
-    private final ChessPosition position;
-    private int direction;
-    private final int row;
-    private final int col;
-    private final int nextRow;
+    private final int square;
 
     public MoveCalculator(ChessBoard board, ChessPiece piece, ChessPosition position) {
         this.board = board;
         this.piece = piece;
-        this.position = position;
-        this.row = position.getRow();
-        this.col = position.getColumn();
-
-        // color direction initialization
-        this.direction = 0;
-        if (piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
-            direction = 1;
-        }
-        if (piece.getTeamColor() == ChessGame.TeamColor.BLACK) {
-            direction = -1;
-        }
-        this.nextRow = row + direction;
+        this.square = Bitboards.square(position);
     }
 
     //create moves arraylist
     public Collection<ChessMove> calculateMoves() {
-        Collection<ChessMove> moves = new ArrayList<>();
-        switch (piece.getPieceType()) {
-            case PAWN -> pawnMoves(moves);
-            case ROOK -> rookMoves(moves);
-            case BISHOP -> bishopMoves(moves);
-            case QUEEN -> queenMoves(moves);
-            case KING -> kingMoves(moves);
-            case KNIGHT -> knightMoves(moves);
-        }
-        return moves;
+        MoveList moves = new MoveList(32);
+        generate(board, piece, square, -1L, moves);
+        return moves.toChessMoves(new ArrayList<>(moves.size()));
     }
-    // create pawn promotion moves
-    private void promotionMoves(Collection<ChessMove> moves, ChessPosition destination) {
-        moves.add(new ChessMove(position, destination, ChessPiece.PieceType.QUEEN));
-        moves.add(new ChessMove(position, destination, ChessPiece.PieceType.ROOK));
-        moves.add(new ChessMove(position, destination, ChessPiece.PieceType.BISHOP));
-        moves.add(new ChessMove(position, destination, ChessPiece.PieceType.KNIGHT));
+
+    /**
+     * Writes the packed moves of every piece of one team into a list, without
+     * checking whether they leave the king in check
+     */
+    static void generate(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        long pieces = board.occupancy(color);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            generate(board, board.getPiece(from), from, -1L, moves);
+        }
     }
-    // check out of bounds
-    private boolean outOfBounds(ChessPosition destination) {
-        int row = destination.getRow();
-        int col = destination.getColumn();
-        return row < 1 || row > 8 || col < 1 || col > 8;
+
+    /**
+     * Writes the packed moves of the piece on a square into a list, without
+     * checking whether they leave the king in check. Only moves ending on a
+     * square in allowed are written, pass -1 to allow every square.
+     */
+    static void generate(ChessBoard board, ChessPiece piece, int from, long allowed, MoveList moves) {
+        long occupied = board.occupied();
+        long targets = ~board.occupancy(piece.getTeamColor()) & allowed;
+        // every piece but the pawn moves to the squares it attacks, minus our own pieces
+        switch (piece.getPieceType()) {
+            case PAWN -> pawnMoves(board, piece.getTeamColor(), from, allowed, moves);
+            case ROOK -> addMoves(moves, from, Attacks.rook(from, occupied) & targets);
+            case BISHOP -> addMoves(moves, from, Attacks.bishop(from, occupied) & targets);
+            case QUEEN -> addMoves(moves, from, Attacks.queen(from, occupied) & targets);
+            case KING -> addMoves(moves, from, Attacks.king(from) & targets);
+            case KNIGHT -> addMoves(moves, from, Attacks.knight(from) & targets);
+        }
     }
 
-    // piece move until stop, rook, bishop, queen
-    private void moveUntilStop(Collection<ChessMove> moves, int specificRow, int specificCol) {
-        int r = row + specificRow;
-        int c = col + specificCol;
-        while (true) {
-            var newPosition = new ChessPosition(r, c);
-            //stop if off board
-            if (outOfBounds(newPosition)) {
-                return;
-            }
-            if (board.getPiece(newPosition) == null) {
-                moves.add(new ChessMove(position, newPosition, null));
-            }
-            if (board.getPiece(newPosition) != null) {
-                if (board.getPiece(newPosition).getTeamColor() != piece.getTeamColor()) {
-                    moves.add(new ChessMove(position, newPosition, null));
-                }
-                return;
-            }
-            // if it is a king don't do the while loop
-            if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-                return;
+    /**
+     * Checks whether one move is among the moves {@link #generate} would write for
+     * the piece, without generating the rest, still not checking whether it
+     * leaves the king in check
+     */
+    static boolean isMove(ChessBoard board, ChessPiece piece, int from, int to, ChessPiece.PieceType promotion) {
+        ChessGame.TeamColor color = piece.getTeamColor();
+        long toBit = Bitboards.bit(to);
+        if ((board.occupancy(color) & toBit) != 0) {
+            return false;
+        }
+        long occupied = board.occupied();
+        long attacks;
+        switch (piece.getPieceType()) {
+            case PAWN -> {
+                return isPawnMove(board, color, from, to, promotion);
             }
-            //update so we don't just check the same square over and over
-            r += specificRow;
-            c += specificCol;
+            case ROOK -> attacks = Attacks.rook(from, occupied);
+            case BISHOP -> attacks = Attacks.bishop(from, occupied);
+            case QUEEN -> attacks = Attacks.queen(from, occupied);
+            case KING -> attacks = Attacks.king(from);
+            default -> attacks = Attacks.knight(from);
         }
+        return promotion == null && (attacks & toBit) != 0;
     }
-    // knight helper function
-    private void knightHelper(Collection<ChessMove> moves, int specificRow, int specificCol) {
-        int r = row + specificRow;
-        int c = col + specificCol;
-        var nextPosition = new ChessPosition(r, c);
-        if (outOfBounds(nextPosition)) {
-            return;
+
+    private static boolean isPawnMove(ChessBoard board, ChessGame.TeamColor color, int from, int to,
+                                      ChessPiece.PieceType promotion) {
+        // pawns promote exactly when they land on the last row, to anything but a king or pawn
+        boolean lastRow = to < 8 || to >= 56;
+        if (lastRow != (promotion != null) || promotion == ChessPiece.PieceType.KING
+                || promotion == ChessPiece.PieceType.PAWN) {
+            return false;
         }
-        if (board.getPiece(nextPosition) == null) {
-            moves.add(new ChessMove(position, nextPosition, null));
+        long occupied = board.occupied();
+        long toBit = Bitboards.bit(to);
+        // attacking diagonal
+        if ((Attacks.pawn(color, from) & board.occupancy(ChessGame.opponent(color)) & toBit) != 0) {
+            return true;
         }
-        if (board.getPiece(nextPosition) != null) {
-            if (board.getPiece(nextPosition).getTeamColor() != piece.getTeamColor()) {
-                moves.add(new ChessMove(position, nextPosition, null));
-            }
+        int step = color == ChessGame.TeamColor.WHITE ? 8 : -8;
+        // move forward
+        if (to == from + step) {
+            return (occupied & toBit) == 0;
         }
+        // move forward 2 on first turn, over an empty square
+        int startRow = color == ChessGame.TeamColor.WHITE ? 2 : 7;
+        return Bitboards.row(from) == startRow && to == from + 2 * step
+                && (occupied & (Bitboards.bit(from + step) | toBit)) == 0;
     }
-    // pawn helper function
-    private void pawnHelper(Collection<ChessMove> moves, int specificRow, int specificCol) {
-        int r = row + specificRow;
-        int c = col + specificCol;
-        var nextPosition = new ChessPosition(r, c);
-        if (outOfBounds(nextPosition)) {
-            return;
+
+    // one move per square in targets
+    private static void addMoves(MoveList moves, int from, long targets) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves.add(PackedMove.of(from, to, null));
         }
-        if (board.getPiece(nextPosition) != null) {
-            if (board.getPiece(nextPosition).getTeamColor() != piece.getTeamColor()) {
-                if (nextRow == 1 || nextRow == 8) {
-                    promotionMoves(moves, nextPosition);
-                }
-                else {
-                    moves.add(new ChessMove(position, nextPosition, null));
-                }
-            }
+    }
+
+    // pawn move to a square, promoting if it lands on the last row
+    private static void pawnMove(MoveList moves, int from, int to) {
+        if (to < 8 || to >= 56) {
+            moves.add(PackedMove.of(from, to, ChessPiece.PieceType.QUEEN));
+            moves.add(PackedMove.of(from, to, ChessPiece.PieceType.ROOK));
+            moves.add(PackedMove.of(from, to, ChessPiece.PieceType.BISHOP));
+            moves.add(PackedMove.of(from, to, ChessPiece.PieceType.KNIGHT));
+        } else {
+            moves.add(PackedMove.of(from, to, null));
         }
     }
-    private void pawnMoves(Collection<ChessMove> moves) {
-        // move forward
-        var forward = new ChessPosition(row + direction, col);
-        if (board.getPiece(forward) == null) {
-            if (nextRow == 8 || nextRow == 1) {
-                promotionMoves(moves, forward);
-            } else {
-                moves.add(new ChessMove(position, forward, null));
-            }
+
+    private static void pawnMoves(ChessBoard board, ChessGame.TeamColor color, int from, long allowed,
+                                  MoveList moves) {
+        long occupied = board.occupied();
+        // color direction, one row is 8 squares
+        int step = color == ChessGame.TeamColor.WHITE ? 8 : -8;
+        int nextRow = Bitboards.row(from) + step / 8;
+        // pawns on the last row have nowhere to go
+        if (nextRow < 1 || nextRow > 8) {
+            return;
         }
-        // move forward 2 on first turn
-        if (row == 2 && direction == 1) {
-            var forwardTwo = new ChessPosition(4, col);
-            if (board.getPiece(forward) == null && board.getPiece(forwardTwo) == null) {
-                moves.add(new ChessMove(position, forwardTwo, null));
+        // move forward
+        int forward = from + step;
+        if ((occupied & Bitboards.bit(forward)) == 0) {
+            if ((allowed & Bitboards.bit(forward)) != 0) {
+                pawnMove(moves, from, forward);
             }
-        } else if (row == 7 && direction == -1) {
-            var forwardTwo = new ChessPosition(5, col);
-            if (board.getPiece(forward) == null && board.getPiece(forwardTwo) == null) {
-                moves.add(new ChessMove(position, forwardTwo, null));
+            // move forward 2 on first turn
+            boolean firstMove = (nextRow == 3 && step > 0) || (nextRow == 6 && step < 0);
+            int forwardTwo = forward + step;
+            if (firstMove && ((occupied | ~allowed) & Bitboards.bit(forwardTwo)) == 0) {
+                moves.add(PackedMove.of(from, forwardTwo, null));
             }
         }
         // attacking diagonal
-        pawnHelper(moves, direction, 1);
-        pawnHelper(moves, direction, -1);
-
-    }
-    private void rookMoves(Collection<ChessMove> moves) {
-        //up
-        moveUntilStop(moves, 1,0);
-        // down
-        moveUntilStop(moves, -1, 0);
-        // right
-        moveUntilStop(moves, 0, 1);
-        //left
-        moveUntilStop(moves, 0, -1);
-    }
-    private void bishopMoves(Collection<ChessMove> moves) {
-        // up right
-        moveUntilStop(moves, 1,1);
-        // up left
-        moveUntilStop(moves, 1, -1);
-        // down right
-        moveUntilStop(moves, -1, 1);
-        // down left
-        moveUntilStop(moves, -1, -1);
-    }
-    private void queenMoves(Collection<ChessMove> moves) {
-        rookMoves(moves);
-        bishopMoves(moves);
-    }
-    private void kingMoves(Collection<ChessMove> moves) {
-        queenMoves(moves);
-    }
-    private void knightMoves(Collection<ChessMove> moves) {
-        // knight move forward 2 and then left or right
-        knightHelper(moves, 1, 2);
-        knightHelper(moves, 1, -2);
-        knightHelper(moves, -1, 2);
-        knightHelper(moves, -1, -2);
-        knightHelper(moves, 2, 1);
-        knightHelper(moves, 2, -1);
-        knightHelper(moves, -2, 1);
-        knightHelper(moves, -2, -1);
+        long captures = Attacks.pawn(color, from) & board.occupancy(ChessGame.opponent(color)) & allowed;
+        while (captures != 0) {
+            int to = Long.numberOfTrailingZeros(captures);
+            captures &= captures - 1;
+            pawnMove(moves, from, to);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,73 @@
+package chess;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Works out legal moves on any board without allocating, for code that has a
+ * board but no {@link ChessGame} around it, like request handlers checking a
+ * move or analysis workers walking many positions.
+ * <p>
+ * A generator keeps its own buffers and reuses them call after call, so it is
+ * not thread safe. {@link #forCurrentThread()} hands out one per thread.
+ */
+public final class MoveGenerator {
+
+    private static final ThreadLocal<MoveGenerator> CURRENT = ThreadLocal.withInitial(MoveGenerator::new);
+
+    private final LegalMoveGenerator generator = new LegalMoveGenerator();
+    private final MoveList scratch = new MoveList();
+
+    /**
+     * @return the calling thread's generator, made the first time it is asked for
+     */
+    public static MoveGenerator forCurrentThread() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Fills a list with the legal moves of the piece at a position, as
+     * {@link PackedMove packed moves}
+     *
+     * @param moves the list to fill, anything already in it is cleared. Left
+     *              empty if there is no piece at the position
+     */
+    public void validMoves(ChessBoard board, ChessPosition position, MoveList moves) {
+        moves.clear();
+        var piece = board.getPiece(position);
+        if (piece == null) {
+            return;
+        }
+        generator.setUp(board, piece.getTeamColor());
+        generator.generate(Bitboards.square(position), moves);
+    }
+
+    /**
+     * Hands each legal move of the piece at a position to a callback, as a
+     * {@link PackedMove packed move}. The callback must not change the board.
+     */
+    public void validMoves(ChessBoard board, ChessPosition position, IntConsumer sink) {
+        validMoves(board, position, scratch);
+        for (int i = 0; i < scratch.size(); i++) {
+            sink.accept(scratch.get(i));
+        }
+    }
+
+    /**
+     * Fills a list with every legal move of a team, as {@link PackedMove packed moves}
+     *
+     * @param moves the list to fill, anything already in it is cleared
+     */
+    public void legalMoves(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        moves.clear();
+        generator.setUp(board, color);
+        generator.generate(moves);
+    }
+
+    /**
+     * Checks whether a move is legal for the piece on its start square
+     */
+    public boolean isLegal(ChessBoard board, ChessMove move) {
+        validMoves(board, move.getStartPosition(), scratch);
+        return scratch.contains(PackedMove.of(move));
+    }
+}
@@ -0,0 +1,97 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A reusable buffer of {@link PackedMove packed moves}. Move generation writes
+ * into one of these instead of building a collection, and clearing it keeps the
+ * backing array so a list held across calls stops allocating once it has grown
+ * to fit.
+ */
+public final class MoveList {
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        // no position has more than 218 legal moves
+        this(256);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[Math.max(capacity, 1)];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drops every move past the first newSize
+     */
+    public void truncate(int newSize) {
+        if (newSize < 0 || newSize > size) {
+            throw new IndexOutOfBoundsException(newSize);
+        }
+        size = newSize;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return a copy of the moves in the list
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    /**
+     * Adds a {@link ChessMove} for every packed move in the list
+     *
+     * @param out where to put the moves
+     * @return out, for chaining
+     */
+    public <T extends Collection<ChessMove>> T toChessMoves(T out) {
+        for (int i = 0; i < size; i++) {
+            out.add(PackedMove.toChessMove(moves[i]));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,48 @@
+package chess;
+
+/**
+ * Moves packed into the low 15 bits of an int, for code that generates or plays
+ * lots of moves and doesn't want a {@link ChessMove} object for each one.
+ * <p>
+ * Bits 0-5 hold the start square, bits 6-11 the end square and bits 12-14 the
+ * promotion piece (0 for none, otherwise the piece type ordinal + 1). Squares
+ * are numbered 0 to 63 from row 1, column 1, so square = (row - 1) * 8 + (column - 1).
+ */
+public final class PackedMove {
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {}
+
+    public static int of(int from, int to, ChessPiece.PieceType promotionPiece) {
+        return from | to << 6 | (promotionPiece == null ? 0 : promotionPiece.ordinal() + 1) << 12;
+    }
+
+    public static int of(ChessMove move) {
+        return of(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()),
+                move.getPromotionPiece());
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return the promotion piece, or null if the move doesn't promote
+     */
+    public static ChessPiece.PieceType promotionPiece(int move) {
+        int code = (move >>> 12) & 7;
+        return code == 0 ? null : TYPES[code - 1];
+    }
+
+    /**
+     * @return the shared {@link ChessMove} for a packed move
+     */
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.of(from(move), to(move), promotionPiece(move));
+    }
+}
@@ -0,0 +1,180 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Perft: counts every leaf of the legal move tree to a fixed depth. The counts
+ * for well known positions are published, so they check the move generator,
+ * and nodes per second is a straight measure of how fast it is.
+ * <p>
+ * Moves come from {@link ChessGame#legalMoves(MoveList)} and are played with
+ * {@link ChessGame#doMove(int)}/{@link ChessGame#undoMove()}, so whichever
+ * {@link ChessGame.MoveGeneration} the game is set to is what gets measured.
+ * Only castling and en passant are missing from these rules, so counts match
+ * the published ones until a line where one of those could first be played.
+ */
+public final class Perft {
+
+    private Perft() {}
+
+    /**
+     * Counts the leaf nodes depth plies below the game's current position.
+     * The game is left as it was.
+     *
+     * @param game  the position to start from, with the side to move set
+     * @param depth how many plies to play out
+     * @return number of move sequences of exactly that length
+     */
+    public static long perft(ChessGame game, int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+        MoveList[] lists = new MoveList[depth + 1];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = new MoveList();
+        }
+        return count(game, depth, lists);
+    }
+
+    private static long count(ChessGame game, int depth, MoveList[] lists) {
+        MoveList moves = lists[depth];
+        game.legalMoves(moves);
+        // no need to play the last ply, the number of moves is the number of leaves
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            nodes += count(game, depth - 1, lists);
+            game.undoMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Perft split by root move: how many leaves are under each legal move of
+     * the current position. Useful for finding which move a count is off under.
+     *
+     * @return leaf count under each root move, in generation order
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            counts.put(PackedMove.toChessMove(moves.get(i)), perft(game, depth - 1));
+            game.undoMove();
+        }
+        return counts;
+    }
+
+    /**
+     * Same as {@link #divide(ChessGame, int)}, but each root move is searched
+     * on its own copy of the game as a task in the pool
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth, ForkJoinPool pool) {
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            ChessGame copy = new ChessGame(game);
+            tasks.add(() -> {
+                copy.doMove(move);
+                return perft(copy, depth - 1);
+            });
+        }
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        var results = pool.invokeAll(tasks);
+        for (int i = 0; i < moves.size(); i++) {
+            try {
+                counts.put(PackedMove.toChessMove(moves.get(i)), results.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Perft was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Perft task failed", e.getCause());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Counts leaf nodes with the root moves split across the pool
+     */
+    public static long perft(ChessGame game, int depth, ForkJoinPool pool) {
+        if (depth <= 1) {
+            return perft(game, depth);
+        }
+        long nodes = 0;
+        for (long count : divide(game, depth, pool).values()) {
+            nodes += count;
+        }
+        return nodes;
+    }
+
+    /**
+     * Runs perft and prints the count and speed.
+     * <pre>
+     * java chess.Perft depth [divide] [threads=N] ["fen=FEN"]
+     * </pre>
+     * With divide the count under each root move is printed too. threads
+     * defaults to the number of cores, threads=1 runs on the calling thread.
+     * fen picks the position, the starting position by default.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: chess.Perft depth [divide] [threads=N] [\"fen=<FEN>\"]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        boolean divide = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String fen = Fen.START;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("divide")) {
+                divide = true;
+            } else if (args[i].startsWith("fen=")) {
+                fen = args[i].substring("fen=".length());
+            } else if (args[i].startsWith("threads=")) {
+                threads = Integer.parseInt(args[i].substring("threads=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        ChessGame game = Fen.parse(fen);
+
+        long start = System.nanoTime();
+        long nodes;
+        if (divide || threads > 1) {
+            Map<ChessMove, Long> counts;
+            if (threads > 1) {
+                var pool = new ForkJoinPool(threads);
+                counts = divide(game, depth, pool);
+                pool.shutdown();
+            } else {
+                counts = divide(game, depth);
+            }
+            nodes = 0;
+            for (var entry : counts.entrySet()) {
+                if (divide) {
+                    System.out.println(entry.getKey() + ": " + entry.getValue());
+                }
+                nodes += entry.getValue();
+            }
+        } else {
+            nodes = perft(game, depth);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("depth %d: %d nodes in %.3f s (%.0f nodes/s, %d threads)%n",
+                depth, nodes, seconds, nodes / Math.max(seconds, 1e-9), threads);
+    }
+}
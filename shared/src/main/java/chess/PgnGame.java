@@ -0,0 +1,138 @@
+package chess;
+
+import java.util.Map;
+
+/**
+ * One game read from a PGN file by {@link PgnReader}: its tag pairs and its
+ * movetext, not yet played through. {@link #replay()} does that, and is safe
+ * to call for different games on different threads.
+ *
+ * @param tags     the tag pairs, like "White" and "Result", in file order
+ * @param moveText everything after the tags, moves, numbers, comments and result
+ */
+public record PgnGame(Map<String, String> tags, String moveText) {
+
+    /**
+     * How a replay went
+     */
+    public enum Outcome {
+        /**
+         * Every move was played
+         */
+        OK,
+        /**
+         * The game castles or takes en passant, which the rules here don't have
+         */
+        UNSUPPORTED,
+        /**
+         * A move couldn't be read or isn't legal in the position, or the "FEN"
+         * tag's position couldn't be read
+         */
+        ILLEGAL
+    }
+
+    /**
+     * @param outcome how far the replay got
+     * @param game    the game after the last move played, the end of the game if the outcome is OK,
+     *                null if the "FEN" tag couldn't be read
+     * @param plies   how many moves were played
+     * @param badMove the move that stopped the replay, or the "FEN" tag if that did, null if the
+     *                outcome is OK
+     */
+    public record Replay(Outcome outcome, ChessGame game, int plies, String badMove) {}
+
+    /**
+     * Plays the moves from the starting position, or the "FEN" tag's position if
+     * there is one, stopping at the first move that can't be played here.
+     * Comments, variations, move numbers and annotation glyphs are skipped.
+     * A game whose "FEN" tag can't be read comes back ILLEGAL without throwing,
+     * so one bad game doesn't stop an import.
+     */
+    public Replay replay() {
+        String fen = tags.get("FEN");
+        ChessGame game;
+        try {
+            game = fen != null ? Fen.parse(fen) : new ChessGame();
+        } catch (IllegalArgumentException e) {
+            return new Replay(Outcome.ILLEGAL, null, 0, fen);
+        }
+        var scratch = new MoveList();
+        String text = moveText;
+        int length = text.length();
+        int plies = 0;
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) || c == '.') {
+                i++;
+            } else if (c == '{') {
+                i = skipPast(text, i, '}');
+            } else if (c == ';') {
+                i = skipPast(text, i, '\n');
+            } else if (c == '(') {
+                i = skipVariation(text, i);
+            } else if (c == '*') {
+                break;
+            } else {
+                int end = i;
+                while (end < length && !Character.isWhitespace(text.charAt(end)) && "{;()".indexOf(text.charAt(end)) < 0) {
+                    end++;
+                }
+                if (isResult(text, i, end)) {
+                    break;
+                }
+                if (c == '$') {
+                    // numeric annotation glyph
+                    i = end;
+                    continue;
+                }
+                if (Character.isDigit(c) && !(end - i >= 3 && text.charAt(i + 1) == '-')) {
+                    // move number, any move straight after the dots is read next time round
+                    while (i < end && Character.isDigit(text.charAt(i))) {
+                        i++;
+                    }
+                    continue;
+                }
+                int move = San.parse(text, i, end, game, scratch);
+                if (move < 0) {
+                    Outcome outcome = move == San.UNSUPPORTED ? Outcome.UNSUPPORTED : Outcome.ILLEGAL;
+                    return new Replay(outcome, game, plies, text.substring(i, end));
+                }
+                game.doMove(move);
+                plies++;
+                i = end;
+            }
+        }
+        return new Replay(Outcome.OK, game, plies, null);
+    }
+
+    private static boolean isResult(String text, int start, int end) {
+        return text.startsWith("1-0", start) && end - start == 3
+                || text.startsWith("0-1", start) && end - start == 3
+                || text.startsWith("1/2-1/2", start) && end - start == 7;
+    }
+
+    private static int skipPast(String text, int i, char close) {
+        int end = text.indexOf(close, i + 1);
+        return end < 0 ? text.length() : end + 1;
+    }
+
+    // variations can hold more variations and comments with brackets in them
+    private static int skipVariation(String text, int i) {
+        int depth = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '{') {
+                i = skipPast(text, i, '}');
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,199 @@
+package chess;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits a PGN file into games as it streams through, so files of any size
+ * can be read a game at a time. The bytes are read from a channel into one
+ * reused buffer and cut into lines there, and only the tag values and movetext
+ * of each game are turned into strings.
+ * <p>
+ * A game is its tag lines (lines starting with "[") and the movetext lines
+ * after them, up to the next tag line. The moves aren't looked at here, that
+ * is left to {@link PgnGame#replay()} so it can happen on other threads.
+ */
+public final class PgnReader implements Closeable {
+
+    private final ReadableByteChannel channel;
+    private ByteBuffer buffer;
+    private boolean endOfInput;
+    private long bytesRead;
+
+    // the next game's tags and movetext as they are read
+    private Map<String, String> tags = new LinkedHashMap<>();
+    private final StringBuilder moveText = new StringBuilder(1024);
+
+    /**
+     * @param channel where the PGN comes from, closed along with the reader
+     */
+    public PgnReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer = ByteBuffer.allocateDirect(1 << 20);
+        buffer.flip();
+    }
+
+    /**
+     * Opens a PGN file
+     */
+    public static PgnReader open(Path file) throws IOException {
+        return new PgnReader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * @return how many bytes have been read from the channel so far
+     */
+    public long bytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Reads the next game
+     *
+     * @return the game, or null at the end of the input
+     */
+    public PgnGame next() throws IOException {
+        while (true) {
+            int start = buffer.position();
+            int end = findLineEnd(start);
+            if (end < 0) {
+                if (endOfInput) {
+                    if (buffer.hasRemaining()) {
+                        // last line with no line ending
+                        PgnGame game = line(buffer.position(), buffer.limit());
+                        buffer.position(buffer.limit());
+                        if (game != null) {
+                            return game;
+                        }
+                    }
+                    return finishGame();
+                }
+                fill();
+                continue;
+            }
+            buffer.position(end + 1);
+            PgnGame game = line(start, end);
+            if (game != null) {
+                return game;
+            }
+        }
+    }
+
+    // handles one line, returning the previous game if the line starts a new one
+    private PgnGame line(int start, int end) {
+        // trim, including the '\r' of Windows line endings
+        while (start < end && isSpace(buffer.get(start))) {
+            start++;
+        }
+        while (end > start && isSpace(buffer.get(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return null;
+        }
+        PgnGame finished = null;
+        if (buffer.get(start) == '[') {
+            if (!moveText.isEmpty()) {
+                finished = finishGame();
+            }
+            readTag(start, end);
+        } else {
+            if (!moveText.isEmpty()) {
+                moveText.append('\n');
+            }
+            for (int i = start; i < end; i++) {
+                moveText.append((char) (buffer.get(i) & 0xff));
+            }
+        }
+        return finished;
+    }
+
+    // [Name "value"], with \" and \\ escaped inside the value
+    private void readTag(int start, int end) {
+        int nameStart = start + 1;
+        int nameEnd = nameStart;
+        while (nameEnd < end && !isSpace(buffer.get(nameEnd))) {
+            nameEnd++;
+        }
+        int quote = nameEnd;
+        while (quote < end && buffer.get(quote) != '"') {
+            quote++;
+        }
+        if (nameEnd == nameStart || quote == end) {
+            // not a tag we can read, skip it
+            return;
+        }
+        var value = new ByteArrayOutputStream(end - quote);
+        for (int i = quote + 1; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '\\' && i + 1 < end) {
+                b = buffer.get(++i);
+            } else if (b == '"') {
+                break;
+            }
+            value.write(b);
+        }
+        tags.put(string(nameStart, nameEnd), value.toString(StandardCharsets.UTF_8));
+    }
+
+    private PgnGame finishGame() {
+        if (tags.isEmpty() && moveText.isEmpty()) {
+            return null;
+        }
+        var game = new PgnGame(tags, moveText.toString());
+        tags = new LinkedHashMap<>();
+        moveText.setLength(0);
+        return game;
+    }
+
+    private int findLineEnd(int start) {
+        for (int i = start; i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // keeps the unread part of the buffer and reads more after it, growing it for very long lines
+    private void fill() throws IOException {
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            var bigger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+        int read = channel.read(buffer);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            bytesRead += read;
+        }
+        buffer.flip();
+    }
+
+    private String string(int start, int end) {
+        var bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,147 @@
+package chess;
+
+/**
+ * What each piece is worth on each square, in centipawns (a pawn is about 100),
+ * kept up to date by {@link ChessBoard} as pieces move so evaluating a position
+ * doesn't have to look at every square.
+ * <p>
+ * There are two sets of scores: one for the middlegame, where the king hides
+ * behind its pawns, and one for the endgame, where the king comes out and
+ * passed pawns matter more. {@link ChessBoard#evaluation()} blends them by how
+ * much material is left.
+ * <p>
+ * The tables below are written the way the board is drawn, row 8 first, from
+ * white's side. Black's pieces read them upside down.
+ */
+public final class PieceSquareTables {
+
+    /**
+     * Game phase with every piece but the pawns and kings still on the board
+     */
+    static final int FULL_PHASE = 24;
+
+    // indexed by PieceType ordinal: king, queen, bishop, knight, rook, pawn
+    private static final int[] MIDDLEGAME_VALUES = {0, 900, 330, 320, 500, 100};
+    private static final int[] ENDGAME_VALUES = {0, 930, 330, 300, 520, 120};
+    // how much each piece counts toward the game phase
+    private static final int[] PHASE = {0, 4, 1, 1, 2, 0};
+
+    private static final int[] KING_MIDDLEGAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20};
+    // with the queens off the king belongs in the middle
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50};
+    private static final int[] QUEEN = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20};
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20};
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50};
+    private static final int[] ROOK = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0};
+    private static final int[] PAWN_MIDDLEGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0};
+    // in the endgame every step toward promotion counts
+    private static final int[] PAWN_ENDGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            80, 80, 80, 80, 80, 80, 80, 80,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            30, 30, 30, 30, 30, 30, 30, 30,
+            15, 15, 15, 15, 15, 15, 15, 15,
+            5, 5, 5, 5, 5, 5, 5, 5,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0};
+
+    // value plus square bonus by board piece index and square, negative for black
+    private static final int[][] MIDDLEGAME = new int[12][64];
+    private static final int[][] ENDGAME = new int[12][64];
+
+    static {
+        int[][] middlegame = {KING_MIDDLEGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_MIDDLEGAME};
+        int[][] endgame = {KING_ENDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_ENDGAME};
+        for (int type = 0; type < 6; type++) {
+            for (int square = 0; square < 64; square++) {
+                int row = square >>> 3;
+                int col = square & 7;
+                // white reads row 8 from the top of the table, black reads it upside down
+                int white = (7 - row) * 8 + col;
+                int black = row * 8 + col;
+                MIDDLEGAME[type][square] = MIDDLEGAME_VALUES[type] + middlegame[type][white];
+                ENDGAME[type][square] = ENDGAME_VALUES[type] + endgame[type][white];
+                MIDDLEGAME[6 + type][square] = -(MIDDLEGAME_VALUES[type] + middlegame[type][black]);
+                ENDGAME[6 + type][square] = -(ENDGAME_VALUES[type] + endgame[type][black]);
+            }
+        }
+    }
+
+    private PieceSquareTables() {}
+
+    /**
+     * @return what a piece is worth in centipawns in the middlegame, 0 for the king
+     */
+    public static int value(ChessPiece.PieceType type) {
+        return MIDDLEGAME_VALUES[type.ordinal()];
+    }
+
+    // white's middlegame score for a piece on a square, see Bitboards.pieceIndex
+    static int middlegame(int pieceIndex, int square) {
+        return MIDDLEGAME[pieceIndex][square];
+    }
+
+    static int endgame(int pieceIndex, int square) {
+        return ENDGAME[pieceIndex][square];
+    }
+
+    static int phase(int pieceIndex) {
+        return PHASE[pieceIndex % 6];
+    }
+}
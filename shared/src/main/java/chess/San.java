@@ -0,0 +1,201 @@
+package chess;
+
+/**
+ * Reads and writes moves in Standard Algebraic Notation, the "Nbd7", "exd5",
+ * "e8=Q+" form used by PGN.
+ * <p>
+ * Moves are read by matching the notation against the game's legal moves, so
+ * only moves that can actually be played are ever returned. The rules here
+ * have no castling or en passant, so those moves are recognized and reported
+ * as {@link #UNSUPPORTED} rather than as not being moves at all.
+ */
+public final class San {
+
+    /**
+     * Returned by {@link #parse} when the text isn't a legal move, or could be
+     * more than one
+     */
+    public static final int NO_MOVE = -1;
+    /**
+     * Returned by {@link #parse} for castling and en passant, which the rules here don't have
+     */
+    public static final int UNSUPPORTED = -2;
+
+    private static final String PIECE_LETTERS = "KQBNRP";
+
+    private San() {}
+
+    /**
+     * Finds the legal move a piece of notation means, without allocating once
+     * the scratch list is big enough. Check, mate and annotation marks on the
+     * end ("+", "#", "!", "?") are ignored.
+     *
+     * @param san     text holding the move
+     * @param start   where the move starts in the text
+     * @param end     where the move ends in the text
+     * @param game    the game the move is played in, which isn't changed
+     * @param scratch a list to generate the game's legal moves into
+     * @return the {@link PackedMove packed move}, {@link #NO_MOVE} or {@link #UNSUPPORTED}
+     */
+    public static int parse(CharSequence san, int start, int end, ChessGame game, MoveList scratch) {
+        // trailing check and annotation marks
+        while (end > start && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        if (end - start >= 3 && (san.charAt(start) == 'O' || san.charAt(start) == '0')
+                && san.charAt(start + 1) == '-') {
+            return UNSUPPORTED;
+        }
+        // promotion piece, written "e8=Q" or "e8Q"
+        ChessPiece.PieceType promotion = null;
+        if (end - start >= 3) {
+            char last = san.charAt(end - 1);
+            int index = PIECE_LETTERS.indexOf(last);
+            if (index >= 1 && index <= 4) {
+                promotion = ChessPiece.PieceType.values()[index];
+                end--;
+                if (san.charAt(end - 1) == '=') {
+                    end--;
+                }
+            }
+        }
+        if (end - start < 2) {
+            return NO_MOVE;
+        }
+        // destination square is always the last two characters
+        int toCol = san.charAt(end - 2) - 'a' + 1;
+        int toRow = san.charAt(end - 1) - '0';
+        if (toCol < 1 || toCol > 8 || toRow < 1 || toRow > 8) {
+            return NO_MOVE;
+        }
+        end -= 2;
+        // piece letter, none for pawns
+        ChessPiece.PieceType type = ChessPiece.PieceType.PAWN;
+        int i = start;
+        if (i < end && Character.isUpperCase(san.charAt(i))) {
+            int index = PIECE_LETTERS.indexOf(san.charAt(i));
+            if (index < 0) {
+                return NO_MOVE;
+            }
+            type = ChessPiece.PieceType.values()[index];
+            i++;
+        }
+        // what's left is an optional start column and row, then an optional capture
+        boolean capture = end > i && san.charAt(end - 1) == 'x';
+        if (capture) {
+            end--;
+        }
+        int fromCol = 0;
+        int fromRow = 0;
+        for (; i < end; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h' && fromCol == 0 && fromRow == 0) {
+                fromCol = c - 'a' + 1;
+            } else if (c >= '1' && c <= '8' && fromRow == 0) {
+                fromRow = c - '0';
+            } else {
+                return NO_MOVE;
+            }
+        }
+
+        ChessBoard board = game.getBoard();
+        int to = Bitboards.square(toRow, toCol);
+        if (type == ChessPiece.PieceType.PAWN && capture && board.getPiece(to) == null) {
+            // a pawn taking onto an empty square can only be en passant
+            return UNSUPPORTED;
+        }
+        game.legalMoves(scratch);
+        int found = NO_MOVE;
+        for (int m = 0; m < scratch.size(); m++) {
+            int move = scratch.get(m);
+            int from = PackedMove.from(move);
+            if (PackedMove.to(move) != to || PackedMove.promotionPiece(move) != promotion
+                    || board.getPiece(from).getPieceType() != type
+                    || (fromCol != 0 && Bitboards.col(from) != fromCol)
+                    || (fromRow != 0 && Bitboards.row(from) != fromRow)) {
+                continue;
+            }
+            if (found != NO_MOVE) {
+                // ambiguous
+                return NO_MOVE;
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    /**
+     * Finds the legal move a whole string of notation means, see
+     * {@link #parse(CharSequence, int, int, ChessGame, MoveList)}
+     */
+    public static int parse(CharSequence san, ChessGame game) {
+        return parse(san, 0, san.length(), game, new MoveList());
+    }
+
+    /**
+     * Writes a legal move in the shortest unambiguous notation, with "+" or "#"
+     * on the end if it gives check or mate
+     *
+     * @param game the game the move is played in, which is left as it was
+     * @param move a legal {@link PackedMove packed move}
+     */
+    public static String write(ChessGame game, int move) {
+        ChessBoard board = game.getBoard();
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece.PieceType type = board.getPiece(from).getPieceType();
+        boolean capture = board.getPiece(to) != null;
+        var out = new StringBuilder(8);
+        if (type == ChessPiece.PieceType.PAWN) {
+            if (capture) {
+                out.append(file(from));
+            }
+        } else {
+            out.append(PIECE_LETTERS.charAt(type.ordinal()));
+            // other pieces of the same type that could also go there
+            var moves = new MoveList();
+            game.legalMoves(moves);
+            boolean sameCol = false;
+            boolean sameRow = false;
+            boolean ambiguous = false;
+            for (int m = 0; m < moves.size(); m++) {
+                int other = PackedMove.from(moves.get(m));
+                if (other == from || PackedMove.to(moves.get(m)) != to
+                        || board.getPiece(other).getPieceType() != type) {
+                    continue;
+                }
+                ambiguous = true;
+                sameCol |= Bitboards.col(other) == Bitboards.col(from);
+                sameRow |= Bitboards.row(other) == Bitboards.row(from);
+            }
+            if (ambiguous && (!sameCol || sameRow)) {
+                out.append(file(from));
+            }
+            if (ambiguous && sameCol) {
+                out.append(Bitboards.row(from));
+            }
+        }
+        if (capture) {
+            out.append('x');
+        }
+        out.append(file(to)).append(Bitboards.row(to));
+        ChessPiece.PieceType promotion = PackedMove.promotionPiece(move);
+        if (promotion != null) {
+            out.append('=').append(PIECE_LETTERS.charAt(promotion.ordinal()));
+        }
+        // play it to see whether it checks or mates
+        game.doMove(move);
+        GameStatus.State state = game.status().state();
+        game.undoMove();
+        if (state == GameStatus.State.CHECKMATE) {
+            out.append('#');
+        } else if (state == GameStatus.State.CHECK) {
+            out.append('+');
+        }
+        return out.toString();
+    }
+
+    private static char file(int square) {
+        return (char) ('a' + Bitboards.col(square) - 1);
+    }
+}
@@ -0,0 +1,31 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of the key for
+ * every piece on its square, plus {@link #BLACK_TO_MOVE} when it's black's turn,
+ * so adding, removing or moving a piece only takes an XOR or two to keep up to date.
+ * The seed is fixed so keys are the same from run to run.
+ */
+final class Zobrist {
+
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    static final long BLACK_TO_MOVE;
+
+    static {
+        var random = new SplittableRandom(0x2B_0B15L);
+        for (long[] keys : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                keys[square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {}
+
+    static long key(int pieceIndex, int square) {
+        return PIECE_SQUARE[pieceIndex][square];
+    }
+}
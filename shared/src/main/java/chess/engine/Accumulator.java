@@ -0,0 +1,80 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * A {@link Network}'s hidden layer for one board, seen from both sides, kept
+ * up to date as pieces are put on and taken off. Attach it with
+ * {@link ChessBoard#setPieceListener} and each piece that moves costs a couple
+ * of vector additions, instead of summing the weights of every piece on the
+ * board at every evaluation.
+ * <p>
+ * An accumulator follows one board at a time and is not thread safe.
+ */
+public final class Accumulator implements ChessBoard.PieceListener {
+
+    // furthest from zero an evaluation can be without looking like a mate
+    private static final int MAX_SCORE = Evaluation.MATE - Evaluation.MAX_PLY - 1;
+
+    private final Network network;
+    private final Kernels kernels;
+    // hidden values by color ordinal, each seen from that color's side
+    private final int[][] views;
+
+    Accumulator(Network network, Kernels kernels) {
+        this.network = network;
+        this.kernels = kernels;
+        views = new int[2][network.hiddenSize()];
+        reset();
+    }
+
+    public Network network() {
+        return network;
+    }
+
+    /**
+     * Empties the accumulator, as if no piece were on the board. Do this before
+     * attaching it to another board.
+     */
+    public void reset() {
+        for (int[] view : views) {
+            System.arraycopy(network.hiddenBiases(), 0, view, 0, view.length);
+        }
+    }
+
+    @Override
+    public void pieceAdded(ChessPiece piece, int square) {
+        int[] weights = network.featureWeights();
+        kernels.add(views[0], weights, whiteInput(piece, square) * views[0].length);
+        kernels.add(views[1], weights, blackInput(piece, square) * views[1].length);
+    }
+
+    @Override
+    public void pieceRemoved(ChessPiece piece, int square) {
+        int[] weights = network.featureWeights();
+        kernels.subtract(views[0], weights, whiteInput(piece, square) * views[0].length);
+        kernels.subtract(views[1], weights, blackInput(piece, square) * views[1].length);
+    }
+
+    /**
+     * Scores the board from the point of view of a side, in centipawns
+     *
+     * @param sideToMove the side to score for, normally the one to move
+     */
+    public int evaluate(ChessGame.TeamColor sideToMove) {
+        int us = sideToMove.ordinal();
+        int score = network.output(kernels, views[us], views[us ^ 1]);
+        return Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+    }
+
+    private static int whiteInput(ChessPiece piece, int square) {
+        return (piece.getTeamColor().ordinal() * 6 + piece.getPieceType().ordinal()) * 64 + square;
+    }
+
+    // black sees its own pieces as the first six and the board upside down
+    private static int blackInput(ChessPiece piece, int square) {
+        return ((piece.getTeamColor().ordinal() ^ 1) * 6 + piece.getPieceType().ordinal()) * 64 + (square ^ 56);
+    }
+}
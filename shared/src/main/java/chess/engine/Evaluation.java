@@ -0,0 +1,42 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PieceSquareTables;
+
+/**
+ * Scores positions for the {@link Search}: material plus a bonus or penalty
+ * for where each piece stands, in centipawns (a pawn is 100), blended between
+ * middlegame and endgame scores by how much material is left.
+ */
+public final class Evaluation {
+
+    /**
+     * Score for being mated right now, mates further away score a ply less each
+     */
+    public static final int MATE = 100_000;
+    /**
+     * Deepest the search ever goes, quiescence included
+     */
+    public static final int MAX_PLY = 128;
+
+    private Evaluation() {}
+
+    /**
+     * @return what a piece is worth in centipawns, 0 for the king, the same
+     * values the board's own score counts
+     */
+    public static int value(ChessPiece.PieceType type) {
+        return PieceSquareTables.value(type);
+    }
+
+    /**
+     * Scores a position from the point of view of the side to move. The board
+     * keeps its score up to date as pieces move, see {@link chess.ChessBoard#evaluation()},
+     * so this doesn't depend on how many pieces are left.
+     */
+    public static int evaluate(ChessGame game) {
+        int score = game.getBoard().evaluation();
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,43 @@
+package chess.engine;
+
+/**
+ * The arithmetic behind a {@link Network}, done either a lane at a time or
+ * with SIMD instructions through the JDK's incubating Vector API when the JVM
+ * was started with {@code --add-modules jdk.incubator.vector}.
+ */
+interface Kernels {
+
+    /**
+     * The SIMD kernels if the Vector API module is loaded, otherwise the
+     * scalar ones, so the engine runs the same everywhere
+     */
+    Kernels BEST = best();
+
+    /**
+     * Adds weights[offset..offset + length) to accumulator[0..length)
+     */
+    void add(int[] accumulator, int[] weights, int offset);
+
+    /**
+     * Subtracts weights[offset..offset + length) from accumulator[0..length)
+     */
+    void subtract(int[] accumulator, int[] weights, int offset);
+
+    /**
+     * Sums each accumulator value clamped to [0, clip] times the matching weight
+     * from weights[offset..]
+     */
+    long clippedDot(int[] accumulator, int clip, int[] weights, int offset);
+
+    // the vector kernels are only loaded by name, so the class never links without the module
+    private static Kernels best() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (Kernels) Class.forName("chess.engine.VectorKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // fall back to scalar below
+            }
+        }
+        return new ScalarKernels();
+    }
+}
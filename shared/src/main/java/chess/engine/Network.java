@@ -0,0 +1,198 @@
+package chess.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * A small NNUE-style evaluation network: 768 inputs (one per piece type, color
+ * and square) into a hidden layer seen from each side, then one output.
+ * <p>
+ * The hidden layer is the sum of the weights of the pieces on the board, so an
+ * {@link Accumulator} can keep it up to date as pieces move instead of
+ * recomputing it, see {@link chess.ChessBoard#setPieceListener}. Only the
+ * output layer runs per evaluation: both sides' hidden values, side to move
+ * first, clamped to [0, {@link #QA}], times the output weights.
+ * <p>
+ * Weights are quantized: the hidden layer by {@link #QA}, the output by
+ * {@link #QB}. Networks are files, little-endian:
+ * <pre>
+ * int   magic "CNN1"
+ * int   hidden layer size
+ * short feature weights, 768 * hidden, the weights of input 0 first
+ * short hidden biases, hidden
+ * short output weights, 2 * hidden, side to move first
+ * int   output bias
+ * </pre>
+ * An input is pieceIndex * 64 + square, where pieceIndex is color ordinal * 6
+ * + piece type ordinal, seen from the side the hidden layer is for: black's
+ * view swaps the colors and flips the board top to bottom.
+ * <p>
+ * A loaded network is immutable and can be shared by any number of threads.
+ */
+public final class Network {
+
+    /**
+     * Hidden layer quantization, also where hidden values are clamped
+     */
+    public static final int QA = 255;
+    /**
+     * Output weight quantization
+     */
+    public static final int QB = 64;
+    /**
+     * Centipawns per unit of network output
+     */
+    public static final int SCALE = 400;
+
+    static final int INPUTS = 768;
+    private static final int MAGIC = 'C' | 'N' << 8 | 'N' << 16 | '1' << 24;
+    private static final int HEADER_BYTES = 8;
+
+    private final int hidden;
+    private final int[] featureWeights;
+    private final int[] hiddenBiases;
+    private final int[] outputWeights;
+    private final int outputBias;
+
+    private Network(int hidden, int[] featureWeights, int[] hiddenBiases, int[] outputWeights, int outputBias) {
+        this.hidden = hidden;
+        this.featureWeights = featureWeights;
+        this.hiddenBiases = hiddenBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Reads a network file by mapping it into memory rather than streaming it
+     *
+     * @throws IOException if the file can't be read or isn't a network
+     */
+    public static Network load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Not a network file: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return read(mapped.order(ByteOrder.LITTLE_ENDIAN), file);
+        }
+    }
+
+    private static Network read(ByteBuffer buffer, Path file) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a network file: " + file);
+        }
+        int hidden = buffer.getInt();
+        if (hidden <= 0 || buffer.remaining() != bytes(hidden) - HEADER_BYTES) {
+            throw new IOException("Network file is the wrong size for its hidden layer: " + file);
+        }
+        int[] featureWeights = readShorts(buffer, INPUTS * hidden);
+        int[] hiddenBiases = readShorts(buffer, hidden);
+        int[] outputWeights = readShorts(buffer, 2 * hidden);
+        return new Network(hidden, featureWeights, hiddenBiases, outputWeights, buffer.getInt());
+    }
+
+    // widened to ints once here so the kernels never convert
+    private static int[] readShorts(ByteBuffer buffer, int count) {
+        short[] shorts = new short[count];
+        buffer.asShortBuffer().get(shorts);
+        buffer.position(buffer.position() + count * Short.BYTES);
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = shorts[i];
+        }
+        return values;
+    }
+
+    /**
+     * Writes the network in the format {@link #load} reads
+     */
+    public void save(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes(hidden)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(hidden);
+        writeShorts(buffer, featureWeights);
+        writeShorts(buffer, hiddenBiases);
+        writeShorts(buffer, outputWeights);
+        buffer.putInt(outputBias);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static void writeShorts(ByteBuffer buffer, int[] values) {
+        for (int value : values) {
+            buffer.putShort((short) value);
+        }
+    }
+
+    private static int bytes(int hidden) {
+        return HEADER_BYTES + (INPUTS * hidden + hidden + 2 * hidden) * Short.BYTES + Integer.BYTES;
+    }
+
+    /**
+     * Makes an untrained network with small random weights, for tests and
+     * benchmarks. It evaluates as fast as a trained one and plays nonsense.
+     *
+     * @param hidden the hidden layer size, a multiple of 16 suits every SIMD width
+     */
+    public static Network random(int hidden, long seed) {
+        if (hidden <= 0) {
+            throw new IllegalArgumentException("Hidden layer size must be positive: " + hidden);
+        }
+        var random = new Random(seed);
+        int[] featureWeights = random.ints(INPUTS * hidden, -32, 33).toArray();
+        int[] hiddenBiases = random.ints(hidden, 0, 64).toArray();
+        int[] outputWeights = random.ints(2 * hidden, -64, 65).toArray();
+        return new Network(hidden, featureWeights, hiddenBiases, outputWeights, random.nextInt(-1000, 1001));
+    }
+
+    public int hiddenSize() {
+        return hidden;
+    }
+
+    /**
+     * @return whether evaluation runs on SIMD instructions, which needs the JVM
+     * started with {@code --add-modules jdk.incubator.vector}
+     */
+    public static boolean vectorized() {
+        return !(Kernels.BEST instanceof ScalarKernels);
+    }
+
+    /**
+     * @return an empty accumulator for this network, to attach to a board
+     */
+    public Accumulator newAccumulator() {
+        return new Accumulator(this, Kernels.BEST);
+    }
+
+    int[] featureWeights() {
+        return featureWeights;
+    }
+
+    int[] hiddenBiases() {
+        return hiddenBiases;
+    }
+
+    /**
+     * Runs the output layer over both sides' hidden values
+     *
+     * @return the score for the side whose hidden values are us, in centipawns
+     */
+    int output(Kernels kernels, int[] us, int[] them) {
+        long sum = kernels.clippedDot(us, QA, outputWeights, 0)
+                + kernels.clippedDot(them, QA, outputWeights, hidden)
+                + outputBias;
+        return (int) (sum * SCALE / (QA * QB));
+    }
+}
@@ -0,0 +1,132 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Searches on several threads at once, Lazy SMP style: every thread searches
+ * the same root on its own, and they help each other only through the shared
+ * {@link TranspositionTable}. Half the helpers start their iterations a ply
+ * deeper than the main thread so the threads don't all walk the same tree in
+ * step, and whatever one thread finishes first the others find in the table.
+ * <p>
+ * The calling thread runs the main search and its {@link SearchLimits} decide
+ * when everything stops; its result is the one given back, with the nodes of
+ * every thread added up. With one thread no helpers are made and the search
+ * runs on the calling thread alone, so given a fresh or {@link TranspositionTable#clear()
+ * cleared} table the same search gives the same result every time, which is
+ * what tests want.
+ * <p>
+ * Not thread safe, one search at a time. Close it to stop the helper threads.
+ */
+public final class ParallelSearch implements AutoCloseable {
+
+    private final TranspositionTable table;
+    private final Search main;
+    private final Search[] helpers;
+    // null when there are no helpers
+    private final ExecutorService pool;
+
+    /**
+     * Makes a search with its own 64 MB table
+     *
+     * @param threads how many threads to search on, calling thread included
+     */
+    public ParallelSearch(int threads) {
+        this(threads, new TranspositionTable(64));
+    }
+
+    /**
+     * @param threads how many threads to search on, calling thread included
+     * @param table   the table every thread shares
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread");
+        }
+        this.table = table;
+        main = new Search(table);
+        helpers = new Search[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new Search(table);
+        }
+        pool = helpers.length == 0 ? null : Executors.newFixedThreadPool(helpers.length, runnable -> {
+            var thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int threads() {
+        return helpers.length + 1;
+    }
+
+    public TranspositionTable table() {
+        return table;
+    }
+
+    /**
+     * Scores positions with a neural network on every thread, see
+     * {@link Search#setNetwork}
+     *
+     * @param network the network, or null to go back to {@link Evaluation}
+     */
+    public void setNetwork(Network network) {
+        main.setNetwork(network);
+        for (Search helper : helpers) {
+            helper.setNetwork(network);
+        }
+    }
+
+    /**
+     * Searches for the best move of the side to move
+     *
+     * @param position the game to search, which isn't changed
+     * @param limits   when to stop
+     */
+    public SearchResult search(ChessGame position, SearchLimits limits) {
+        if (helpers.length == 0) {
+            return main.search(position, limits);
+        }
+        long start = System.nanoTime();
+        // copied once here so the helpers only ever read a fully set up board
+        var root = new ChessGame(position);
+        var stop = new AtomicBoolean();
+        table.newSearch();
+        // helpers run until the main search is done
+        var helperLimits = SearchLimits.depth(limits.maxDepth());
+        List<Future<SearchResult>> running = new ArrayList<>(helpers.length);
+        for (int i = 0; i < helpers.length; i++) {
+            Search helper = helpers[i];
+            int firstDepth = 1 + (i & 1);
+            running.add(pool.submit(() -> helper.searchShared(root, helperLimits, firstDepth, stop)));
+        }
+        SearchResult result = main.searchShared(root, limits, 1, null);
+        stop.set(true);
+        long nodes = result.nodes();
+        try {
+            for (Future<SearchResult> helper : running) {
+                nodes += helper.get().nodes();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search helper failed", e.getCause());
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes, System.nanoTime() - start);
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
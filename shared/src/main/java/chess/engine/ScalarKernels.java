@@ -0,0 +1,32 @@
+package chess.engine;
+
+/**
+ * Plain loops, for JVMs without the Vector API. The JIT auto-vectorizes
+ * {@link #add} and {@link #subtract} on its own, the clamped dot product it
+ * mostly doesn't.
+ */
+final class ScalarKernels implements Kernels {
+
+    @Override
+    public void add(int[] accumulator, int[] weights, int offset) {
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    public void subtract(int[] accumulator, int[] weights, int offset) {
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    public long clippedDot(int[] accumulator, int clip, int[] weights, int offset) {
+        long sum = 0;
+        for (int i = 0; i < accumulator.length; i++) {
+            sum += (long) Math.min(Math.max(accumulator[i], 0), clip) * weights[offset + i];
+        }
+        return sum;
+    }
+}
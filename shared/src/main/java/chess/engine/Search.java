@@ -0,0 +1,383 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.MoveList;
+import chess.PackedMove;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds good moves by looking ahead: negamax alpha-beta search with iterative
+ * deepening, a quiescence search over captures at the leaves so it doesn't
+ * stop in the middle of an exchange, and move ordering (last iteration's best
+ * move, then captures by most valuable victim and least valuable attacker,
+ * then killer moves) so alpha-beta cuts off early.
+ * <p>
+ * Positions already searched are looked up in a {@link TranspositionTable},
+ * which can be shared with other searches. Positions are scored by
+ * {@link Evaluation}, or by a {@link Network} if one is set.
+ * <p>
+ * Searches run on a copy of the game, and reuse their move lists from one
+ * search to the next, so one Search per thread can answer any number of
+ * requests without allocating much. A Search is not thread safe.
+ */
+public class Search {
+
+    private static final int INFINITY = Evaluation.MATE + 1;
+    // how often to look at the clock, in nodes
+    private static final int CHECK_INTERVAL = 1024;
+
+    // move lists and their ordering scores, one per ply
+    private final MoveList[] moves = new MoveList[Evaluation.MAX_PLY + 1];
+    private final int[][] orderScores = new int[Evaluation.MAX_PLY + 1][];
+    // two quiet moves per ply that caused a cutoff last time they were tried
+    private final int[][] killers = new int[Evaluation.MAX_PLY + 1][2];
+
+    private final TranspositionTable table;
+    // the network's view of the board being searched, null to score with Evaluation
+    private Accumulator accumulator;
+    private ChessGame game;
+    private ChessBoard board;
+    private SearchLimits limits;
+    // when the search started and how long it may take, in nanoseconds. nanoTime values are only
+    // compared as elapsed time since start, they can be anywhere and wrap
+    private long start;
+    private long budget;
+    private long nodes;
+    private boolean stopped;
+    // set by another thread to stop this search, null if nothing else can stop it
+    private AtomicBoolean stopSignal;
+    private int iterationDepth;
+    // best root move of the last finished iteration and of the one underway, 0 for none
+    private int bestMove;
+    private int iterationBest;
+
+    /**
+     * Makes a search with its own 16 MB table
+     */
+    public Search() {
+        this(new TranspositionTable(16));
+    }
+
+    /**
+     * @param table where to remember positions, can be shared with other searches
+     */
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int ply = 0; ply <= Evaluation.MAX_PLY; ply++) {
+            moves[ply] = new MoveList(64);
+            orderScores[ply] = new int[256];
+        }
+    }
+
+    /**
+     * Scores positions with a neural network instead of the piece-square
+     * tables. The network's hidden layer follows the moves made during the
+     * search, so each evaluation only runs the output layer.
+     *
+     * @param network the network, or null to go back to {@link Evaluation}
+     */
+    public void setNetwork(Network network) {
+        accumulator = network == null ? null : network.newAccumulator();
+    }
+
+    public Network getNetwork() {
+        return accumulator == null ? null : accumulator.network();
+    }
+
+    /**
+     * Searches for the best move of the side to move
+     *
+     * @param position the game to search, which isn't changed
+     * @param limits   when to stop
+     */
+    public SearchResult search(ChessGame position, SearchLimits limits) {
+        return run(position, limits, 1, null, true);
+    }
+
+    /**
+     * Searches as one of several threads sharing the table, see {@link ParallelSearch}.
+     * The table's {@link TranspositionTable#newSearch() age} is left alone.
+     *
+     * @param firstDepth the first iteration's depth, helpers start deeper so threads spread out
+     * @param stop       stops the search when set, it gives up its current iteration
+     */
+    SearchResult searchShared(ChessGame position, SearchLimits limits, int firstDepth, AtomicBoolean stop) {
+        return run(position, limits, firstDepth, stop, false);
+    }
+
+    private SearchResult run(ChessGame position, SearchLimits limits, int firstDepth, AtomicBoolean stop,
+                             boolean newSearch) {
+        long start = System.nanoTime();
+        game = new ChessGame(position);
+        game.setMoveCache(null);
+        game.setSpeculation(null);
+        board = game.getBoard();
+        if (accumulator != null) {
+            accumulator.reset();
+            board.setPieceListener(accumulator);
+        }
+        this.limits = limits;
+        this.start = start;
+        budget = limits.maxMillis() >= Long.MAX_VALUE / 1_000_000 ? Long.MAX_VALUE
+                : limits.maxMillis() * 1_000_000;
+        nodes = 0;
+        stopped = false;
+        stopSignal = stop;
+        bestMove = 0;
+        if (newSearch) {
+            table.newSearch();
+        }
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = 0;
+            plyKillers[1] = 0;
+        }
+
+        int score = 0;
+        int depth = 0;
+        for (iterationDepth = firstDepth; iterationDepth <= limits.maxDepth(); iterationDepth++) {
+            iterationBest = 0;
+            int iterationScore = negamax(iterationDepth, 0, -INFINITY, INFINITY);
+            if (iterationBest != 0) {
+                // a move that beat the others before a stop is still the best one seen
+                bestMove = iterationBest;
+            }
+            if (stopped) {
+                break;
+            }
+            score = iterationScore;
+            depth = iterationDepth;
+            if (bestMove == 0) {
+                // no legal moves, nothing more to find
+                break;
+            }
+            // a mate this close won't be improved on, and the next iteration would probably run out of time
+            boolean mateFound = Math.abs(score) >= Evaluation.MATE - iterationDepth;
+            boolean halfTimeUsed = System.nanoTime() - start > budget / 2;
+            if (mateFound || halfTimeUsed) {
+                break;
+            }
+        }
+        return new SearchResult(bestMove == 0 ? null : PackedMove.toChessMove(bestMove), score, depth, nodes,
+                System.nanoTime() - start);
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        // look one ply further when in check, so mates aren't cut off at the horizon
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0 || ply >= Evaluation.MAX_PLY) {
+            return quiesce(ply, alpha, beta);
+        }
+        nodes++;
+        if (outOfBudget()) {
+            return 0;
+        }
+        // a deep enough earlier result can answer straight away, otherwise its move goes first
+        long key = game.positionKey();
+        long entry = table.probe(key);
+        int hashMove = 0;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            int score = fromTable(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth
+                    && (bound == TranspositionTable.EXACT
+                    || bound == TranspositionTable.LOWER && score >= beta
+                    || bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+        MoveList list = moves[ply];
+        game.legalMoves(list);
+        if (list.isEmpty()) {
+            return inCheck ? -Evaluation.MATE + ply : 0;
+        }
+        scoreMoves(list, ply, ply == 0 && bestMove != 0 ? bestMove : hashMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestHere = 0;
+        for (int i = 0; i < list.size(); i++) {
+            int move = pickNext(list, ply, i);
+            boolean quiet = isQuiet(move);
+            game.doMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestHere = move;
+                if (ply == 0) {
+                    iterationBest = move;
+                }
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                if (quiet && killers[ply][0] != move) {
+                    killers[ply][1] = killers[ply][0];
+                    killers[ply][0] = move;
+                }
+                break;
+            }
+        }
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestHere, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    // the table keeps mate scores as plies from the stored position, the search as plies from the root
+    private static int toTable(int score, int ply) {
+        if (score >= Evaluation.MATE - Evaluation.MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -Evaluation.MATE + Evaluation.MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= Evaluation.MATE - Evaluation.MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -Evaluation.MATE + Evaluation.MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    // only captures and promotions, until the position is quiet enough to trust the evaluation
+    private int quiesce(int ply, int alpha, int beta) {
+        nodes++;
+        if (outOfBudget()) {
+            return 0;
+        }
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        int best = -INFINITY;
+        if (!inCheck) {
+            // the side to move can usually do at least as well as standing still
+            best = evaluate();
+            if (best >= beta || ply >= Evaluation.MAX_PLY) {
+                return best;
+            }
+            if (best > alpha) {
+                alpha = best;
+            }
+        }
+        MoveList list = moves[ply];
+        game.legalMoves(list);
+        if (list.isEmpty()) {
+            return inCheck ? -Evaluation.MATE + ply : 0;
+        }
+        if (ply >= Evaluation.MAX_PLY) {
+            return evaluate();
+        }
+        scoreMoves(list, ply, 0);
+        for (int i = 0; i < list.size(); i++) {
+            int move = pickNext(list, ply, i);
+            // in check every move has to be looked at, otherwise only the noisy ones
+            if (!inCheck && isQuiet(move)) {
+                continue;
+            }
+            game.doMove(move);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    // the first iteration always finishes, so there's a move to give, unless another thread says stop
+    private boolean outOfBudget() {
+        if (stopSignal != null && !stopped && nodes % CHECK_INTERVAL == 0 && stopSignal.get()) {
+            stopped = true;
+        }
+        if (iterationDepth > 1 && !stopped) {
+            if (nodes >= limits.maxNodes()) {
+                stopped = true;
+            } else if (nodes % CHECK_INTERVAL == 0 && System.nanoTime() - start > budget) {
+                stopped = true;
+            }
+        }
+        return stopped;
+    }
+
+    // best first: the hash move, captures by victim then attacker, promotions, killers, the rest
+    private void scoreMoves(MoveList list, int ply, int firstMove) {
+        int[] scores = orderScores[ply];
+        for (int i = 0; i < list.size(); i++) {
+            int move = list.get(i);
+            int score = 0;
+            if (move == firstMove) {
+                score = 1_000_000;
+            } else {
+                ChessPiece victim = pieceAt(PackedMove.to(move));
+                if (victim != null) {
+                    score = 100_000 + 10 * Evaluation.value(victim.getPieceType())
+                            - Evaluation.value(pieceAt(PackedMove.from(move)).getPieceType()) / 10;
+                } else if (PackedMove.promotionPiece(move) != null) {
+                    score = 90_000 + Evaluation.value(PackedMove.promotionPiece(move));
+                } else if (move == killers[ply][0]) {
+                    score = 80_000;
+                } else if (move == killers[ply][1]) {
+                    score = 70_000;
+                }
+            }
+            scores[i] = score;
+        }
+    }
+
+    // selection sort one step at a time, most searches cut off before the list is sorted
+    private int pickNext(MoveList list, int ply, int index) {
+        int[] scores = orderScores[ply];
+        int best = index;
+        for (int i = index + 1; i < list.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = list.get(best);
+        if (best != index) {
+            list.set(best, list.get(index));
+            list.set(index, move);
+            int score = scores[best];
+            scores[best] = scores[index];
+            scores[index] = score;
+        }
+        return move;
+    }
+
+    private boolean isQuiet(int move) {
+        return pieceAt(PackedMove.to(move)) == null && PackedMove.promotionPiece(move) == null;
+    }
+
+    private ChessPiece pieceAt(int square) {
+        return board.getPiece(ChessPosition.of((square >>> 3) + 1, (square & 7) + 1));
+    }
+
+    private int evaluate() {
+        return accumulator == null ? Evaluation.evaluate(game) : accumulator.evaluate(game.getTeamTurn());
+    }
+}
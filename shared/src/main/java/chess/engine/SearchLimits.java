@@ -0,0 +1,44 @@
+package chess.engine;
+
+/**
+ * When a {@link Search} should stop. The search stops at whichever limit it
+ * hits first, and always finishes at least depth 1 so it has a move to give.
+ *
+ * @param maxDepth  deepest iteration to search, in plies
+ * @param maxNodes  most positions to visit
+ * @param maxMillis longest to search for, in milliseconds
+ */
+public record SearchLimits(int maxDepth, long maxNodes, long maxMillis) {
+
+    public static final int MAX_DEPTH = 64;
+
+    public SearchLimits {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH);
+        }
+        if (maxNodes < 1 || maxMillis < 1) {
+            throw new IllegalArgumentException("Node and time limits must be positive");
+        }
+    }
+
+    /**
+     * Search to a fixed depth, however long it takes
+     */
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Search until about this many positions have been visited
+     */
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(MAX_DEPTH, nodes, Long.MAX_VALUE);
+    }
+
+    /**
+     * Search for about this long
+     */
+    public static SearchLimits millis(long millis) {
+        return new SearchLimits(MAX_DEPTH, Long.MAX_VALUE, millis);
+    }
+}
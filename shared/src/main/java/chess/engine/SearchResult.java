@@ -0,0 +1,37 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+/**
+ * What a {@link Search} found.
+ *
+ * @param bestMove the move to play, null if the side to move has no legal moves
+ * @param score    how good the position is for the side to move, in centipawns,
+ *                 or within {@link Evaluation#MAX_PLY} of +/-{@link Evaluation#MATE} for a forced mate
+ * @param depth    deepest iteration finished
+ * @param nodes    positions visited, quiescence included
+ * @param nanos    how long the search took
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long nanos) {
+
+    public long nodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+
+    /**
+     * @return whether the score is a forced mate, for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Evaluation.MATE - Evaluation.MAX_PLY;
+    }
+
+    /**
+     * @return plies until mate, positive if the side to move mates, or 0 if the score isn't a mate
+     */
+    public int matePlies() {
+        if (!isMate()) {
+            return 0;
+        }
+        return score > 0 ? Evaluation.MATE - score : -(Evaluation.MATE + score);
+    }
+}
@@ -0,0 +1,194 @@
+package chess.engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Remembers what earlier searches found about positions, so a position
+ * reached again by a different move order (or by another thread) doesn't have
+ * to be searched again, and its best move can be tried first when it does.
+ * <p>
+ * The table lives off the Java heap in direct buffers, up to 1 GB each, so it
+ * can be gigabytes big without the garbage collector ever looking at it. Each
+ * 32-byte bucket holds two 16-byte entries: the first keeps whichever result
+ * came from the deepest search (or from this search, over ones left from
+ * older searches), the second always takes the newest result that didn't
+ * make it into the first.
+ * <p>
+ * Any number of threads can read and write at once without locks. Each entry
+ * is stored as the position key XOR its data, followed by the data, so an
+ * entry half written by one thread while another reads it fails the key check
+ * and reads as a miss instead of as wrong data.
+ * <p>
+ * Results come back from {@link #probe} as one packed long, unpacked with
+ * {@link #move}, {@link #score}, {@link #depth} and {@link #bound}.
+ */
+public final class TranspositionTable {
+
+    /**
+     * The score is the exact value of the position
+     */
+    public static final int EXACT = 1;
+    /**
+     * The score is at least this, the search cut off on it
+     */
+    public static final int LOWER = 2;
+    /**
+     * The score is at most this, no move reached alpha
+     */
+    public static final int UPPER = 3;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.nativeOrder());
+    private static final int BUCKET_BYTES = 32;
+    // buckets per buffer, 1 GB worth
+    private static final int SEGMENT_SHIFT = 25;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final ByteBuffer[] segments;
+    private final long buckets;
+    // which search is running, so entries left over from older ones can be replaced
+    private volatile int age;
+
+    /**
+     * @param megabytes how much memory to use, off the heap
+     */
+    public TranspositionTable(long megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Table must be at least 1 MB");
+        }
+        buckets = megabytes * (1 << 20) / BUCKET_BYTES;
+        int count = (int) ((buckets + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        segments = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long size = Math.min(buckets - ((long) i << SEGMENT_SHIFT), 1L << SEGMENT_SHIFT);
+            segments[i] = ByteBuffer.allocateDirect((int) (size * BUCKET_BYTES)).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * @return the table's size in bytes
+     */
+    public long sizeInBytes() {
+        return buckets * BUCKET_BYTES;
+    }
+
+    /**
+     * Marks the start of a new search, entries from earlier searches get replaced first
+     */
+    public void newSearch() {
+        age = (age + 1) & 63;
+    }
+
+    /**
+     * Empties the table
+     */
+    public void clear() {
+        for (ByteBuffer segment : segments) {
+            for (int offset = 0; offset < segment.capacity(); offset += 8) {
+                LONGS.setOpaque(segment, offset, 0L);
+            }
+        }
+    }
+
+    /**
+     * Looks a position up
+     *
+     * @param key the position's {@link chess.ChessGame#positionKey() key}
+     * @return the packed entry, or 0 if the position isn't in the table
+     */
+    public long probe(long key) {
+        long bucket = bucket(key);
+        ByteBuffer segment = segments[(int) (bucket >>> SEGMENT_SHIFT)];
+        int offset = (int) (bucket & SEGMENT_MASK) * BUCKET_BYTES;
+        for (int slot = 0; slot < 2; slot++, offset += 16) {
+            long data = (long) LONGS.getOpaque(segment, offset + 8);
+            if (((long) LONGS.getOpaque(segment, offset) ^ data) == key && data != 0) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Saves what a search found about a position
+     *
+     * @param key   the position's {@link chess.ChessGame#positionKey() key}
+     * @param move  the best {@link chess.PackedMove packed move} found, 0 for none
+     * @param score the score, with mates counted from this position rather than the root
+     * @param depth how deep the search went
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        long data = pack(move, score, depth, bound, age);
+        long bucket = bucket(key);
+        ByteBuffer segment = segments[(int) (bucket >>> SEGMENT_SHIFT)];
+        int offset = (int) (bucket & SEGMENT_MASK) * BUCKET_BYTES;
+        // depth preferred slot: same position, an old search's entry, or a shallower one
+        long old = (long) LONGS.getOpaque(segment, offset + 8);
+        long oldKey = (long) LONGS.getOpaque(segment, offset) ^ old;
+        if (old == 0 || oldKey == key || age(old) != age || depth >= depth(old)) {
+            write(segment, offset, key, data);
+        } else {
+            write(segment, offset + 16, key, data);
+        }
+    }
+
+    /**
+     * Estimates how full the table is from the first thousand buckets
+     *
+     * @return permille of the sampled entries that belong to the current search
+     */
+    public int hashfull() {
+        ByteBuffer segment = segments[0];
+        int sampled = Math.min(1000, segment.capacity() / BUCKET_BYTES);
+        int used = 0;
+        for (int i = 0; i < sampled; i++) {
+            for (int slot = 0; slot < 2; slot++) {
+                long data = (long) LONGS.getOpaque(segment, i * BUCKET_BYTES + slot * 16 + 8);
+                if (data != 0 && age(data) == age) {
+                    used++;
+                }
+            }
+        }
+        return used * 1000 / (sampled * 2);
+    }
+
+    private static void write(ByteBuffer segment, int offset, long key, long data) {
+        LONGS.setOpaque(segment, offset, key ^ data);
+        LONGS.setOpaque(segment, offset + 8, data);
+    }
+
+    // spreads keys over the buckets without a division
+    private long bucket(long key) {
+        return Math.unsignedMultiplyHigh(key, buckets);
+    }
+
+    // move in bits 0-15, score 16-47, depth 48-55, bound 56-57, age 58-63
+    static long pack(int move, int score, int depth, int bound, int age) {
+        return (move & 0xffffL) | (score & 0xffffffffL) << 16 | (long) (depth & 0xff) << 48
+                | (long) bound << 56 | (long) age << 58;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & 0xffff);
+    }
+
+    public static int score(long entry) {
+        return (int) (entry >> 16);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 48) & 0xff;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 56) & 3;
+    }
+
+    private static int age(long entry) {
+        return (int) (entry >>> 58);
+    }
+}
@@ -0,0 +1,58 @@
+package chess.engine;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link Kernels} on the widest SIMD registers the CPU has (AVX2 or
+ * AVX-512 on x86, NEON or SVE on ARM), with a scalar loop for whatever
+ * doesn't fill a whole register. Only loaded when the Vector API module is,
+ * see {@link Kernels#BEST}.
+ */
+final class VectorKernels implements Kernels {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public void add(int[] accumulator, int[] weights, int offset) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(accumulator.length); i < bound; i += SPECIES.length()) {
+            IntVector.fromArray(SPECIES, accumulator, i)
+                    .add(IntVector.fromArray(SPECIES, weights, offset + i))
+                    .intoArray(accumulator, i);
+        }
+        for (; i < accumulator.length; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    public void subtract(int[] accumulator, int[] weights, int offset) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(accumulator.length); i < bound; i += SPECIES.length()) {
+            IntVector.fromArray(SPECIES, accumulator, i)
+                    .sub(IntVector.fromArray(SPECIES, weights, offset + i))
+                    .intoArray(accumulator, i);
+        }
+        for (; i < accumulator.length; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    public long clippedDot(int[] accumulator, int clip, int[] weights, int offset) {
+        // each lane only sums length / lanes products, which fits an int for any sane network
+        IntVector sums = IntVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(accumulator.length); i < bound; i += SPECIES.length()) {
+            IntVector clipped = IntVector.fromArray(SPECIES, accumulator, i).max(0).min(clip);
+            sums = clipped.mul(IntVector.fromArray(SPECIES, weights, offset + i)).add(sums);
+        }
+        long sum = sums.reduceLanesToLong(VectorOperators.ADD);
+        for (; i < accumulator.length; i++) {
+            sum += (long) Math.min(Math.max(accumulator[i], 0), clip) * weights[offset + i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,50 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+public class AttacksTest {
+
+    // magic lookups should agree with walking the rays by hand for any blockers
+    @Test
+    public void slidersMatchRayWalk() {
+        var random = new Random(240);
+        for (int i = 0; i < 2000; i++) {
+            long occupied = random.nextLong() & random.nextLong();
+            for (int square = 0; square < 64; square++) {
+                Assertions.assertEquals(walk(square, occupied, new int[][]{{1, 0}, {-1, 0}, {0, 1}, {0, -1}}),
+                        Attacks.rook(square, occupied), "rook on " + square);
+                Assertions.assertEquals(walk(square, occupied, new int[][]{{1, 1}, {1, -1}, {-1, 1}, {-1, -1}}),
+                        Attacks.bishop(square, occupied), "bishop on " + square);
+            }
+        }
+    }
+
+    @Test
+    public void cornerTables() {
+        // a1 king and knight
+        Assertions.assertEquals(3, Long.bitCount(Attacks.king(0)));
+        Assertions.assertEquals(2, Long.bitCount(Attacks.knight(0)));
+        // white pawn on a2 only captures b3, black pawn on h7 only captures g6
+        Assertions.assertEquals(1L << 17, Attacks.pawn(ChessGame.TeamColor.WHITE, 8));
+        Assertions.assertEquals(1L << 46, Attacks.pawn(ChessGame.TeamColor.BLACK, 55));
+    }
+
+    private static long walk(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int r = square / 8 + direction[0];
+            int c = square % 8 + direction[1];
+            while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                attacks |= 1L << (r * 8 + c);
+                if ((occupied & (1L << (r * 8 + c))) != 0) {
+                    break;
+                }
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return attacks;
+    }
+}
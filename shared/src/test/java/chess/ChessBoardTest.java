@@ -0,0 +1,153 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+public class ChessBoardTest {
+
+    // bitboards follow addPiece, including replacing and removing pieces
+    @Test
+    public void bitboardsTrackAddPiece() {
+        var board = new ChessBoard();
+        var position = new ChessPosition(4, 5);
+        board.addPiece(position, new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        board.addPiece(position, new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+
+        long bit = 1L << Bitboards.square(position);
+        Assertions.assertEquals(0L, board.pieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        Assertions.assertEquals(bit, board.pieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        Assertions.assertEquals(bit, board.occupied());
+
+        board.addPiece(position, null);
+        Assertions.assertEquals(0L, board.occupied());
+        Assertions.assertEquals(new ChessBoard(), board);
+    }
+
+    // a board read back by gson only has squares filled in, the bitboards get rebuilt
+    @Test
+    public void gsonRoundTripKeepsBitboards() {
+        var board = new ChessBoard();
+        board.resetBoard();
+        var copy = new Gson().fromJson(new Gson().toJson(board), ChessBoard.class);
+
+        Assertions.assertEquals(board, copy);
+        Assertions.assertEquals(board.hashCode(), copy.hashCode());
+        Assertions.assertEquals(board.occupancy(ChessGame.TeamColor.BLACK),
+                copy.occupancy(ChessGame.TeamColor.BLACK));
+    }
+
+    // the incrementally kept key has to match one built from scratch, and undo restores it
+    @Test
+    public void zobristKeyFollowsMoves() {
+        var random = new Random(3);
+        var game = new ChessGame();
+        long startKey = game.positionKey();
+        var moves = new MoveList();
+        int played = 0;
+        for (; played < 120; played++) {
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.doMove(moves.get(random.nextInt(moves.size())));
+            var rebuilt = new Gson().fromJson(new Gson().toJson(game.getBoard()), ChessBoard.class);
+            Assertions.assertEquals(rebuilt.zobristKey(), game.getBoard().zobristKey());
+        }
+        for (int i = 0; i < played; i++) {
+            game.undoMove();
+        }
+        Assertions.assertEquals(startKey, game.positionKey());
+        // same pieces with the other side to move is a different position
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertNotEquals(startKey, game.positionKey());
+    }
+
+    // the incrementally kept scores have to match ones built from scratch, and undo restores them
+    @Test
+    public void evaluationFollowsMoves() {
+        var random = new Random(5);
+        var game = new ChessGame();
+        var board = game.getBoard();
+        int startScore = board.evaluation();
+        Assertions.assertEquals(0, startScore);
+        Assertions.assertEquals(24, board.gamePhase());
+        var moves = new MoveList();
+        int played = 0;
+        for (; played < 160; played++) {
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.doMove(moves.get(random.nextInt(moves.size())));
+            var rebuilt = new Gson().fromJson(new Gson().toJson(board), ChessBoard.class);
+            Assertions.assertEquals(rebuilt.middlegameScore(), board.middlegameScore());
+            Assertions.assertEquals(rebuilt.endgameScore(), board.endgameScore());
+            Assertions.assertEquals(rebuilt.gamePhase(), board.gamePhase());
+        }
+        for (int i = 0; i < played; i++) {
+            game.undoMove();
+        }
+        Assertions.assertEquals(startScore, board.evaluation());
+        Assertions.assertEquals(24, board.gamePhase());
+    }
+
+    // kings and pawns only is scored on the endgame tables alone
+    @Test
+    public void evaluationTapersToEndgame() {
+        var board = Fen.parse("4k3/8/8/8/3K4/8/4P3/8 w").getBoard();
+        Assertions.assertEquals(0, board.gamePhase());
+        Assertions.assertEquals(board.endgameScore(), board.evaluation());
+        // a centralized king and an extra pawn are both worth something
+        Assertions.assertTrue(board.evaluation() > 100);
+    }
+
+    // getSquares hands out a copy, writing to it can't put the board out of step with its bitboards and key
+    @Test
+    public void squaresRebuildAnEqualBoard() {
+        var board = Fen.parse("r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w").getBoard();
+        long key = board.zobristKey();
+        int score = board.evaluation();
+
+        var squares = board.getSquares();
+        var rebuilt = new ChessBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                rebuilt.addPiece(new ChessPosition(row, col), squares[row - 1][col - 1]);
+            }
+        }
+        Assertions.assertEquals(board, rebuilt);
+        Assertions.assertEquals(key, rebuilt.zobristKey());
+        Assertions.assertEquals(score, rebuilt.evaluation());
+
+        squares[0][4] = null;
+        squares[3][3] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
+        Assertions.assertEquals(rebuilt, board);
+        Assertions.assertEquals(key, board.zobristKey());
+        Assertions.assertNotNull(board.getPiece(new ChessPosition(1, 5)));
+    }
+
+    @Test
+    public void kingSquaresAndPieceIteration() {
+        var board = new ChessBoard();
+        board.resetBoard();
+        Assertions.assertEquals(new ChessPosition(8, 5), board.getKingPosition(ChessGame.TeamColor.BLACK));
+        Assertions.assertEquals(16, board.pieceCount(ChessGame.TeamColor.WHITE));
+
+        // move the white king, then take it off the board
+        board.addPiece(new ChessPosition(1, 5), null);
+        board.addPiece(new ChessPosition(3, 3), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        Assertions.assertEquals(new ChessPosition(3, 3), board.getKingPosition(ChessGame.TeamColor.WHITE));
+        board.addPiece(new ChessPosition(3, 3), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        Assertions.assertNull(board.getKingPosition(ChessGame.TeamColor.WHITE));
+
+        var visited = new ArrayList<ChessPosition>();
+        board.forEachPiece(ChessGame.TeamColor.BLACK, (position, piece) -> {
+            Assertions.assertEquals(ChessGame.TeamColor.BLACK, piece.getTeamColor());
+            visited.add(position);
+        });
+        Assertions.assertEquals(17, visited.size());
+    }
+}
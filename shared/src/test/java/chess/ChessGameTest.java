@@ -0,0 +1,373 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class ChessGameTest {
+
+    // for squares holding a defender, being attacked means some attacker move captures there
+    @Test
+    public void squareAttackedMatchesMoveGeneration() {
+        var random = new Random(240);
+        for (int i = 0; i < 300; i++) {
+            var game = new ChessGame();
+            game.setBoard(randomBoard(random));
+            var board = game.getBoard();
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    var target = new ChessPosition(row, col);
+                    var defender = board.getPiece(target);
+                    if (defender == null) {
+                        continue;
+                    }
+                    var attackers = ChessGame.opponent(defender.getTeamColor());
+                    Assertions.assertEquals(capturedByMove(board, target, attackers),
+                            game.isSquareAttacked(target, attackers), "square " + target);
+                }
+            }
+        }
+    }
+
+    // play a random game forward with doMove, then undo all of it
+    @Test
+    public void undoMoveRestoresEveryPosition() {
+        var random = new Random(7);
+        var game = new ChessGame();
+        var history = new ArrayList<ChessGame>();
+        for (int ply = 0; ply < 200; ply++) {
+            var moves = allMoves(game);
+            if (moves.isEmpty()) {
+                break;
+            }
+            history.add(copyOf(game));
+            game.doMove(moves.get(random.nextInt(moves.size())));
+        }
+        for (int i = history.size() - 1; i >= 0; i--) {
+            game.undoMove();
+            Assertions.assertEquals(history.get(i), game, "after undoing back to ply " + i);
+        }
+        Assertions.assertThrows(IllegalStateException.class, game::undoMove);
+    }
+
+    @Test
+    public void undoMoveTakesBackPromotionCapture() throws InvalidMoveException {
+        var game = new ChessGame();
+        var board = new ChessBoard();
+        board.addPiece(new ChessPosition(7, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        game.setBoard(board);
+        var before = copyOf(game);
+
+        game.makeMove(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 1), ChessPiece.PieceType.KNIGHT));
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT),
+                board.getPiece(new ChessPosition(8, 1)));
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+
+        game.undoMove();
+        Assertions.assertEquals(before, game);
+    }
+
+    // the packed list and the per-piece collections should describe the same moves
+    @Test
+    public void legalMovesMatchValidMoves() {
+        var random = new Random(11);
+        var game = new ChessGame();
+        var packed = new MoveList();
+        for (int ply = 0; ply < 150; ply++) {
+            var expected = allMoves(game);
+            game.legalMoves(packed);
+            var actual = packed.toChessMoves(new HashSet<>());
+            Assertions.assertEquals(new HashSet<>(expected), actual, "at ply " + ply);
+            Assertions.assertEquals(expected.size(), packed.size());
+            if (expected.isEmpty()) {
+                break;
+            }
+            game.doMove(packed.get(random.nextInt(packed.size())));
+        }
+    }
+
+    // the pin-aware generator has to agree with make-and-test, in games and in odd positions
+    @Test
+    public void pinAwareMatchesMakeAndTest() {
+        var random = new Random(19);
+        var fast = new MoveList();
+        var slow = new MoveList();
+        for (int i = 0; i < 40; i++) {
+            var game = new ChessGame();
+            for (int ply = 0; ply < 120; ply++) {
+                Assertions.assertEquals(sortedMoves(game, ChessGame.MoveGeneration.MAKE_AND_TEST, slow),
+                        sortedMoves(game, ChessGame.MoveGeneration.PIN_AWARE, fast), "game " + i + " ply " + ply);
+                if (fast.isEmpty()) {
+                    break;
+                }
+                game.doMove(fast.get(random.nextInt(fast.size())));
+            }
+        }
+        for (int i = 0; i < 2000; i++) {
+            var game = new ChessGame();
+            game.setBoard(randomBoard(random));
+            game.setTeamTurn(random.nextBoolean() ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK);
+            Assertions.assertEquals(sortedMoves(game, ChessGame.MoveGeneration.MAKE_AND_TEST, slow),
+                    sortedMoves(game, ChessGame.MoveGeneration.PIN_AWARE, fast), "random board " + i);
+        }
+    }
+
+    private static List<Integer> sortedMoves(ChessGame game, ChessGame.MoveGeneration generation, MoveList moves) {
+        game.setMoveGeneration(generation);
+        game.legalMoves(moves);
+        var sorted = new ArrayList<Integer>();
+        for (int i = 0; i < moves.size(); i++) {
+            sorted.add(moves.get(i));
+        }
+        sorted.sort(null);
+        return sorted;
+    }
+
+    // status() in one pass has to agree with asking the three questions separately
+    @Test
+    public void statusMatchesSeparateChecks() {
+        var random = new Random(5);
+        for (int i = 0; i < 2000; i++) {
+            var game = new ChessGame();
+            game.setBoard(randomBoard(random));
+            var turn = random.nextBoolean() ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            game.setTeamTurn(turn);
+            boolean check = game.isInCheck(turn);
+            boolean noMoves = allMoves(game).isEmpty();
+
+            var status = game.status();
+            Assertions.assertEquals(turn, status.teamToMove());
+            Assertions.assertEquals(check && noMoves, status.state() == GameStatus.State.CHECKMATE);
+            Assertions.assertEquals(!check && noMoves, status.state() == GameStatus.State.STALEMATE);
+            Assertions.assertEquals(check && !noMoves, status.state() == GameStatus.State.CHECK);
+            Assertions.assertSame(status, game.status());
+        }
+    }
+
+    @Test
+    public void statusFollowsBoardChanges() {
+        var game = new ChessGame();
+        Assertions.assertEquals(new GameStatus(GameStatus.State.NORMAL, ChessGame.TeamColor.WHITE), game.status());
+        // fool's mate, played straight onto the board
+        var board = game.getBoard();
+        board.addPiece(new ChessPosition(2, 6), null);
+        board.addPiece(new ChessPosition(3, 6), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(2, 7), null);
+        board.addPiece(new ChessPosition(4, 7), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(7, 5), null);
+        board.addPiece(new ChessPosition(5, 5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(8, 4), null);
+        board.addPiece(new ChessPosition(4, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        Assertions.assertEquals(GameStatus.State.CHECKMATE, game.status().state());
+        Assertions.assertTrue(game.status().isGameOver());
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+    }
+
+    // the lazy iterator walks exactly the moves the list version generates
+    @Test
+    public void legalMoveIteratorMatchesLegalMoves() {
+        var random = new Random(13);
+        var moves = new MoveList();
+        for (int i = 0; i < 1000; i++) {
+            var game = new ChessGame();
+            game.setBoard(randomBoard(random));
+            game.legalMoves(moves);
+            var expected = moves.toChessMoves(new HashSet<>());
+
+            var iterated = new HashSet<ChessMove>();
+            game.legalMoveIterator().forEachRemaining(iterated::add);
+            Assertions.assertEquals(expected, iterated, "random board " + i);
+
+            var perPiece = new HashSet<ChessMove>();
+            for (var move : expected) {
+                game.legalMoveIterator(move.getStartPosition()).forEachRemaining(perPiece::add);
+            }
+            Assertions.assertEquals(expected, perPiece);
+        }
+        Assertions.assertFalse(new ChessGame().legalMoveIterator(new ChessPosition(4, 4)).hasNext());
+    }
+
+    // the buffer, callback and per-thread versions all give the same moves as the collection
+    @Test
+    public void validMovesIntoBuffersMatchCollection() {
+        var random = new Random(14);
+        var moves = new MoveList();
+        var generator = MoveGenerator.forCurrentThread();
+        for (int i = 0; i < 500; i++) {
+            var game = new ChessGame();
+            game.setBoard(randomBoard(random));
+            for (int sq = 0; sq < 64; sq++) {
+                var position = ChessPosition.of(sq);
+                var expected = game.validMoves(position);
+                game.validMoves(position, moves);
+                if (expected == null) {
+                    Assertions.assertTrue(moves.isEmpty());
+                    continue;
+                }
+                Assertions.assertEquals(new HashSet<>(expected), moves.toChessMoves(new HashSet<>()));
+
+                var fromSink = new HashSet<ChessMove>();
+                game.validMoves(position, move -> fromSink.add(PackedMove.toChessMove(move)));
+                Assertions.assertEquals(new HashSet<>(expected), fromSink);
+
+                generator.validMoves(game.getBoard(), position, moves);
+                Assertions.assertEquals(new HashSet<>(expected), moves.toChessMoves(new HashSet<>()));
+                for (var move : expected) {
+                    Assertions.assertTrue(generator.isLegal(game.getBoard(), move));
+                }
+            }
+        }
+        Assertions.assertSame(generator, MoveGenerator.forCurrentThread());
+    }
+
+    // a speculating game accepts and rejects exactly the moves a plain one does, with the same reasons
+    @Test
+    public void speculationKeepsMakeMoveResults() throws InterruptedException {
+        var random = new Random(16);
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            for (Executor speculation : new Executor[]{Runnable::run, executor}) {
+                var plain = new ChessGame();
+                var speculating = new ChessGame();
+                speculating.setSpeculation(speculation);
+                for (int ply = 0; ply < 150; ply++) {
+                    var legal = allMoves(plain);
+                    if (legal.isEmpty()) {
+                        break;
+                    }
+                    // a few moves that may or may not be legal, then a legal one
+                    for (int i = 0; i < 5; i++) {
+                        var tried = ChessMove.of(ChessPosition.of(random.nextInt(64)), ChessPosition.of(random.nextInt(64)),
+                                null);
+                        Assertions.assertEquals(tryMove(plain, tried), tryMove(speculating, tried), "ply " + ply);
+                    }
+                    var move = legal.get(random.nextInt(legal.size()));
+                    Assertions.assertEquals(tryMove(plain, move), tryMove(speculating, move));
+                    Assertions.assertEquals(plain, speculating);
+                }
+            }
+        } finally {
+            executor.shutdown();
+            Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    // makeMove checks only the submitted move, it has to accept exactly the generated legal moves
+    @Test
+    public void makeMoveAcceptsExactlyLegalMoves() {
+        var random = new Random(17);
+        var promotions = new ChessPiece.PieceType[]{null, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KNIGHT,
+                ChessPiece.PieceType.KING, ChessPiece.PieceType.PAWN};
+        var legal = new MoveList();
+        for (int i = 0; i < 200; i++) {
+            var game = new ChessGame();
+            game.setBoard(randomBoard(random));
+            game.setTeamTurn(random.nextBoolean() ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK);
+            game.legalMoves(legal);
+            var before = copyOf(game);
+            for (int from = 0; from < 64; from++) {
+                var piece = game.getBoard().getPiece(ChessPosition.of(from));
+                if (piece == null || piece.getTeamColor() != game.getTeamTurn()) {
+                    continue;
+                }
+                for (int to = 0; to < 64; to++) {
+                    for (var promotion : promotions) {
+                        var move = ChessMove.of(ChessPosition.of(from), ChessPosition.of(to), promotion);
+                        boolean accepted = tryMove(game, move) == null;
+                        Assertions.assertEquals(legal.contains(PackedMove.of(move)), accepted, "board " + i + " " + move);
+                        if (accepted) {
+                            game.undoMove();
+                        }
+                        Assertions.assertEquals(before, game);
+                    }
+                }
+            }
+        }
+    }
+
+    // null if the move was made, otherwise why not
+    private static String tryMove(ChessGame game, ChessMove move) {
+        try {
+            game.makeMove(move);
+            return null;
+        } catch (InvalidMoveException e) {
+            return e.getMessage();
+        }
+    }
+
+    // every legal move for the side to move
+    static List<ChessMove> allMoves(ChessGame game) {
+        var moves = new ArrayList<ChessMove>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                var position = new ChessPosition(row, col);
+                var piece = game.getBoard().getPiece(position);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    moves.addAll(game.validMoves(position));
+                }
+            }
+        }
+        return moves;
+    }
+
+    static ChessGame copyOf(ChessGame game) {
+        var board = new ChessBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                var position = new ChessPosition(row, col);
+                board.addPiece(position, game.getBoard().getPiece(position));
+            }
+        }
+        var copy = new ChessGame();
+        copy.setBoard(board);
+        copy.setTeamTurn(game.getTeamTurn());
+        return copy;
+    }
+
+    private static boolean capturedByMove(ChessBoard board, ChessPosition target, ChessGame.TeamColor attackers) {
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                var position = new ChessPosition(row, col);
+                var piece = board.getPiece(position);
+                if (piece == null || piece.getTeamColor() != attackers) {
+                    continue;
+                }
+                for (var move : piece.pieceMoves(board, position)) {
+                    if (move.getEndPosition().equals(target)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // a dozen or so random pieces, no pawns on the back rows, usually with kings
+    static ChessBoard randomBoard(Random random) {
+        var board = new ChessBoard();
+        if (random.nextInt(4) != 0) {
+            board.addPiece(new ChessPosition(1 + random.nextInt(8), 1 + random.nextInt(8)),
+                    ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+            board.addPiece(new ChessPosition(1 + random.nextInt(8), 1 + random.nextInt(8)),
+                    ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        }
+        // at most one king a side, the rules don't mean anything with more
+        var types = new ChessPiece.PieceType[]{ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+                ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.PAWN};
+        int count = 6 + random.nextInt(14);
+        for (int i = 0; i < count; i++) {
+            var type = types[random.nextInt(types.length)];
+            int row = type == ChessPiece.PieceType.PAWN ? 2 + random.nextInt(6) : 1 + random.nextInt(8);
+            var color = random.nextBoolean() ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            board.addPiece(new ChessPosition(row, 1 + random.nextInt(8)), new ChessPiece(color, type));
+        }
+        return board;
+    }
+}
@@ -0,0 +1,46 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.HashSet;
+
+public class ChessMoveTest {
+
+    // shared instances have to be interchangeable with ones built by the constructors
+    @Test
+    public void sharedInstancesMatchConstructed() {
+        var start = new ChessPosition(7, 3);
+        var end = new ChessPosition(8, 4);
+        var built = new ChessMove(start, end, ChessPiece.PieceType.ROOK);
+        var shared = ChessMove.of(start, end, ChessPiece.PieceType.ROOK);
+
+        Assertions.assertSame(shared, ChessMove.of(ChessPosition.of(7, 3), ChessPosition.of(8, 4),
+                ChessPiece.PieceType.ROOK));
+        Assertions.assertEquals(built, shared);
+        Assertions.assertEquals(built.hashCode(), shared.hashCode());
+        Assertions.assertEquals(start.hashCode(), ChessPosition.of(7, 3).hashCode());
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING),
+                ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+    }
+
+    // off-board or unusual moves still work, they just aren't shared
+    @Test
+    public void movesOutsideTheTableAreBuilt() {
+        var odd = ChessMove.of(new ChessPosition(2, 1), new ChessPosition(5, 1), ChessPiece.PieceType.QUEEN);
+        Assertions.assertEquals(ChessPiece.PieceType.QUEEN, odd.getPromotionPiece());
+        var offBoard = ChessPosition.of(0, 9);
+        Assertions.assertEquals(new ChessPosition(0, 9), offBoard);
+    }
+
+    // every move on the board hashes differently
+    @Test
+    public void hashCodesAreUnique() {
+        var seen = new HashSet<Integer>();
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                Assertions.assertTrue(seen.add(ChessMove.of(from, to, null).hashCode()));
+                Assertions.assertTrue(seen.add(ChessMove.of(from, to, ChessPiece.PieceType.KNIGHT).hashCode()));
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class FenTest {
+
+    @Test
+    public void startPosition() {
+        Assertions.assertEquals(new ChessGame(), Fen.parse(Fen.START));
+        Assertions.assertEquals(Fen.START, Fen.write(new ChessGame()));
+        // castling, en passant and the counters are optional and ignored
+        Assertions.assertEquals(new ChessGame(), Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR"));
+        Assertions.assertEquals(new ChessGame(), Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e3 4 20"));
+    }
+
+    // write then read gives back the same game, from text and from a buffer of lines
+    @Test
+    public void roundTrip() {
+        var random = new Random(19);
+        var buffer = ByteBuffer.allocate(100 * 300);
+        var games = new ChessGame[300];
+        var reused = new ChessGame();
+        for (int i = 0; i < games.length; i++) {
+            games[i] = new ChessGame();
+            games[i].setBoard(ChessGameTest.randomBoard(random));
+            games[i].setTeamTurn(random.nextBoolean() ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK);
+            String fen = Fen.write(games[i]);
+            Fen.read(fen, reused);
+            Assertions.assertEquals(games[i], reused, fen);
+            Assertions.assertEquals(games[i].positionKey(), reused.positionKey());
+            Fen.write(games[i], buffer);
+        }
+        buffer.flip();
+        for (var game : games) {
+            Assertions.assertTrue(Fen.read(buffer, reused));
+            Assertions.assertEquals(game, reused);
+        }
+        Assertions.assertFalse(Fen.read(buffer, reused));
+    }
+
+    @Test
+    public void bufferSkipsBlankLinesAndCarriageReturns() {
+        String lines = "\n" + Fen.START + "\r\n\r\n8/8/8/8/8/8/8/K6k b\n";
+        var buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.US_ASCII));
+        var game = new ChessGame();
+        Assertions.assertTrue(Fen.read(buffer, game));
+        Assertions.assertEquals(new ChessGame(), game);
+        Assertions.assertTrue(Fen.read(buffer, game));
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertEquals(2, game.getBoard().pieceCount(ChessGame.TeamColor.WHITE)
+                + game.getBoard().pieceCount(ChessGame.TeamColor.BLACK));
+        Assertions.assertFalse(Fen.read(buffer, game));
+    }
+
+    @Test
+    public void rejectsBadFen() {
+        for (String fen : new String[]{"", "8/8/8/8/8/8/8", "8/8/8/8/8/8/8/8/8", "9/8/8/8/8/8/8/8",
+                "8/8/8/8/8/8/8/7", "8/8/8/8/8/8/8/44k", "8/8/8/8/8/8/8/x7", "8/8/8/8/8/8/8/8 x",
+                "8/8/8/8/8/8/8/8 white"}) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse(fen), fen);
+        }
+    }
+}
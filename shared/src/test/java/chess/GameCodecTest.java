@@ -0,0 +1,59 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import model.GameData;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+public class GameCodecTest {
+
+    @Test
+    public void bytesAndTextRoundTrip() {
+        var random = new Random(18);
+        for (int i = 0; i < 500; i++) {
+            var game = new ChessGame();
+            game.setBoard(ChessGameTest.randomBoard(random));
+            game.setTeamTurn(random.nextBoolean() ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK);
+
+            byte[] bytes = game.toBytes();
+            Assertions.assertEquals(34, bytes.length);
+            Assertions.assertEquals(game, ChessGame.fromBytes(bytes));
+            String text = game.toCompactString();
+            Assertions.assertEquals(46, text.length());
+            Assertions.assertEquals(game, ChessGame.fromCompactString(text));
+        }
+    }
+
+    // games inside GameData go out as compact text, and the old object form still reads back
+    @Test
+    public void gsonWritesCompactGames() {
+        var game = new ChessGame();
+        game.doMove(ChessMove.of(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        var data = new GameData(3, "white", null, "a game", game);
+        var gson = new Gson();
+
+        String json = gson.toJson(data);
+        Assertions.assertTrue(json.contains("\"game\":\"" + game.toCompactString() + "\""), json);
+        Assertions.assertEquals(data, gson.fromJson(json, GameData.class));
+
+        // the old form, written out field by field
+        String legacy = "{\"board\":" + gson.toJson(game.getBoard()) + ",\"turn\":\"BLACK\"}";
+        Assertions.assertTrue(legacy.length() > 20 * game.toCompactString().length(), legacy);
+        Assertions.assertEquals(game, gson.fromJson(legacy, ChessGame.class));
+        Assertions.assertNull(new GsonBuilder().serializeNulls().create().fromJson("null", ChessGame.class));
+    }
+
+    @Test
+    public void rejectsBadInput() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromBytes(new byte[10]));
+        byte[] bytes = new ChessGame().toBytes();
+        bytes[0] = 9;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromBytes(bytes));
+        byte[] badPiece = new ChessGame().toBytes();
+        badPiece[20] = (byte) 0xff;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromBytes(badPiece));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromCompactString("not a game"));
+    }
+}
@@ -0,0 +1,111 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Random;
+
+public class LegalMoveCacheTest {
+
+    // asking twice in the same position hits, and hits give the same moves as generating them
+    @Test
+    public void cachedMovesMatchGenerated() {
+        var cache = new LegalMoveCache(64);
+        var random = new Random(15);
+        for (int i = 0; i < 300; i++) {
+            var board = ChessGameTest.randomBoard(random);
+            var cached = new ChessGame();
+            cached.setBoard(board);
+            cached.setMoveCache(cache);
+            var uncached = new ChessGame(cached);
+            uncached.setMoveCache(null);
+            for (int sq = 0; sq < 64; sq++) {
+                var position = ChessPosition.of(sq);
+                var expected = uncached.validMoves(position);
+                if (expected == null) {
+                    Assertions.assertNull(cached.validMoves(position));
+                    continue;
+                }
+                long hits = cache.hitCount();
+                Assertions.assertEquals(new HashSet<>(expected), new HashSet<>(cached.validMoves(position)));
+                Assertions.assertEquals(new HashSet<>(expected), new HashSet<>(cached.validMoves(position)));
+                Assertions.assertTrue(cache.hitCount() > hits);
+            }
+        }
+        Assertions.assertTrue(cache.size() <= cache.capacity());
+        Assertions.assertTrue(cache.evictionCount() > 0);
+        Assertions.assertTrue(cache.hitRate() > 0.4);
+    }
+
+    // an entry hit since the hand last went past survives the next eviction
+    @Test
+    public void clockGivesHitEntriesASecondChance() {
+        var cache = new LegalMoveCache(3);
+        cache.put(1, 0, new int[]{1});
+        cache.put(2, 0, new int[]{2});
+        cache.put(3, 0, new int[]{3});
+        Assertions.assertNotNull(cache.get(1, 0));
+
+        cache.put(4, 0, new int[]{4});
+        Assertions.assertEquals(3, cache.size());
+        Assertions.assertNotNull(cache.get(1, 0));
+        Assertions.assertNull(cache.get(2, 0));
+        Assertions.assertArrayEquals(new int[]{4}, cache.get(4, 0));
+        Assertions.assertEquals(1, cache.evictionCount());
+
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertNull(cache.get(1, 0));
+    }
+
+    // hits are looked up on the key and square as they are, nothing is allocated per lookup
+    @Test
+    public void hitsDontAllocate() {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var cache = new LegalMoveCache(64);
+        for (int i = 0; i < 64; i++) {
+            cache.put(i * 0x5DEECE66DL, i, new int[]{i});
+        }
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        long found = 0;
+        for (int round = 0; round < 1000; round++) {
+            for (int i = 0; i < 64; i++) {
+                found += cache.get(i * 0x5DEECE66DL, i).length;
+            }
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        Assertions.assertEquals(64_000, found);
+        // a key object per lookup would be over a megabyte
+        Assertions.assertTrue(allocated < 64_000, allocated + " bytes allocated");
+    }
+
+    // evicting from the middle of a probe run leaves every other entry findable
+    @Test
+    public void evictionKeepsProbeRunsIntact() {
+        var cache = new LegalMoveCache(8);
+        var random = new Random(4);
+        for (int i = 0; i < 2000; i++) {
+            long key = random.nextInt(40);
+            int square = random.nextInt(2);
+            cache.put(key, square, new int[]{(int) key, square});
+            // every entry held has to be found, or one got lost behind an empty slot
+            int found = 0;
+            for (int k = 0; k < 40; k++) {
+                for (int sq = 0; sq < 2; sq++) {
+                    int[] moves = cache.get(k, sq);
+                    if (moves != null) {
+                        Assertions.assertArrayEquals(new int[]{k, sq}, moves);
+                        found++;
+                    }
+                }
+            }
+            Assertions.assertEquals(cache.size(), found);
+            Assertions.assertNotNull(cache.get(key, square));
+            Assertions.assertTrue(cache.size() <= 8);
+        }
+        Assertions.assertEquals(8, cache.size());
+    }
+}
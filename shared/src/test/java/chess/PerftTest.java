@@ -0,0 +1,58 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class PerftTest {
+
+    // published counts, before castling or en passant could come up
+    @Test
+    public void startingPosition() {
+        var game = new ChessGame();
+        long[] expected = {1, 20, 400, 8902, 197281};
+        for (int depth = 0; depth < expected.length; depth++) {
+            Assertions.assertEquals(expected[depth], Perft.perft(game, depth), "depth " + depth);
+        }
+        // perft puts everything back
+        Assertions.assertEquals(new ChessGame(), game);
+    }
+
+    @Test
+    public void startingPositionMakeAndTest() {
+        var game = new ChessGame();
+        game.setMoveGeneration(ChessGame.MoveGeneration.MAKE_AND_TEST);
+        Assertions.assertEquals(8902, Perft.perft(game, 3));
+    }
+
+    // "position 3" from the chess programming wiki, a rook and pawn ending full of pins and checks
+    @Test
+    public void rookEnding() {
+        var game = new ChessGame();
+        var board = new ChessBoard();
+        board.addPiece(new ChessPosition(5, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(5, 2), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(4, 2), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        board.addPiece(new ChessPosition(2, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(2, 7), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(7, 3), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(6, 4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(5, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        board.addPiece(new ChessPosition(4, 6), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(4, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        game.setBoard(board);
+        Assertions.assertEquals(14, Perft.perft(game, 1));
+        Assertions.assertEquals(191, Perft.perft(game, 2));
+    }
+
+    @Test
+    public void parallelDivideMatchesSerial() {
+        var game = new ChessGame();
+        var pool = new ForkJoinPool(4);
+        var serial = Perft.divide(game, 3);
+        Assertions.assertEquals(serial, Perft.divide(game, 3, pool));
+        Assertions.assertEquals(20, serial.size());
+        Assertions.assertEquals(197281, Perft.perft(game, 4, pool));
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,150 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class PgnTest {
+
+    // writing each legal move and reading it back gives the same move, in random games
+    @Test
+    public void sanRoundTrip() {
+        var random = new Random(20);
+        var moves = new MoveList();
+        var scratch = new MoveList();
+        for (int g = 0; g < 30; g++) {
+            var game = new ChessGame();
+            for (int ply = 0; ply < 120; ply++) {
+                game.legalMoves(moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                for (int i = 0; i < moves.size(); i++) {
+                    String san = San.write(game, moves.get(i));
+                    Assertions.assertEquals(moves.get(i), San.parse(san, 0, san.length(), game, scratch), san);
+                }
+                game.doMove(moves.get(random.nextInt(moves.size())));
+            }
+        }
+    }
+
+    @Test
+    public void sanDisambiguationAndMarks() {
+        var game = Fen.parse("4k3/8/8/8/8/8/4K3/R6R w - - 0 1");
+        Assertions.assertEquals("Rad1", San.write(game, San.parse("Rad1", game)));
+        Assertions.assertEquals("Rhd1", San.write(game, San.parse("Rhd1+!?", game)));
+        Assertions.assertEquals(San.NO_MOVE, San.parse("Rd1", game));
+        Assertions.assertEquals(San.NO_MOVE, San.parse("Qd1", game));
+        Assertions.assertEquals(San.UNSUPPORTED, San.parse("O-O", game));
+        Assertions.assertEquals(San.UNSUPPORTED, San.parse("0-0-0", game));
+        var mate = Fen.parse("k7/8/1K6/8/8/8/8/7R w");
+        Assertions.assertEquals("Rh8#", San.write(mate, San.parse("Rh8", mate)));
+
+        var promotion = Fen.parse("8/1P5k/8/8/8/8/8/K7 w");
+        Assertions.assertEquals(PackedMove.of(Bitboards.square(7, 2), Bitboards.square(8, 2), ChessPiece.PieceType.KNIGHT),
+                San.parse("b8=N", promotion));
+        Assertions.assertEquals(San.parse("b8=Q", promotion), San.parse("b8Q", promotion));
+        Assertions.assertEquals(San.NO_MOVE, San.parse("b8", promotion));
+        // a pawn taking onto an empty square is en passant
+        Assertions.assertEquals(San.UNSUPPORTED, San.parse("exd6", Fen.parse("4k3/8/8/3pP3/8/8/8/4K3 w")));
+    }
+
+    @Test
+    public void readsGamesAndReplaysThem() throws IOException {
+        String pgn = """
+                [Event "Scholar's mate"]
+                [White "A \\"Quoted\\" Player"]
+                [Black "B"]
+                [Result "1-0"]\r
+                \r
+                1. e4 {best by test (really)} e5 2. Bc4 (2. Nf3 Nc6 (2... d6)) Nc6 $1
+                3. Qh5 Nf6?? ; oops
+                4. Qxf7# 1-0
+
+                [Event "Castles"]
+
+                1. e4 e5 2. Nf3 Nc6 3. Bc4 Bc5 4. O-O *
+                [Event "Bad"]
+                1.e4 e5 2.Ke3 1/2-1/2
+                [Event "From a position"]
+                [FEN "4k3/8/8/8/8/8/1P6/4K3 w - - 0 1"]
+                1. b4 Kd7 2. b5 Kc7 3. b6+ Kxb6""";
+        var games = readAll(pgn);
+        Assertions.assertEquals(4, games.size());
+        Assertions.assertEquals("A \"Quoted\" Player", games.get(0).tags().get("White"));
+
+        var mate = games.get(0).replay();
+        Assertions.assertEquals(PgnGame.Outcome.OK, mate.outcome());
+        Assertions.assertEquals(7, mate.plies());
+        Assertions.assertEquals(GameStatus.State.CHECKMATE, mate.game().status().state());
+
+        var castles = games.get(1).replay();
+        Assertions.assertEquals(PgnGame.Outcome.UNSUPPORTED, castles.outcome());
+        Assertions.assertEquals(6, castles.plies());
+        Assertions.assertEquals("O-O", castles.badMove());
+
+        var bad = games.get(2).replay();
+        Assertions.assertEquals(PgnGame.Outcome.ILLEGAL, bad.outcome());
+        Assertions.assertEquals("Ke3", bad.badMove());
+
+        var fromFen = games.get(3).replay();
+        Assertions.assertEquals(PgnGame.Outcome.OK, fromFen.outcome());
+        Assertions.assertEquals(Fen.parse("8/8/1k6/8/8/8/8/4K3 w"), fromFen.game());
+    }
+
+    // games longer than the read buffer still come through whole
+    @Test
+    public void readsPastBufferBoundaries() throws IOException {
+        var random = new Random(21);
+        var text = new StringBuilder();
+        var finals = new ArrayList<ChessGame>();
+        var moves = new MoveList();
+        for (int g = 0; g < 400; g++) {
+            var game = new ChessGame();
+            text.append("[Event \"game ").append(g).append("\"]\n\n");
+            for (int ply = 0; ply < 100; ply++) {
+                game.legalMoves(moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                int move = moves.get(random.nextInt(moves.size()));
+                if (ply % 2 == 0) {
+                    text.append(ply / 2 + 1).append(". ");
+                }
+                text.append(San.write(game, move)).append(ply % 10 == 9 ? "\n" : " ");
+                game.doMove(move);
+            }
+            text.append("*\n\n");
+            finals.add(game);
+        }
+        // plus one enormous comment
+        text.append("[Event \"long\"]\n\n1. e4 {").append("x".repeat(3 << 20)).append("} e5\n");
+        var games = readAll(text.toString());
+        Assertions.assertEquals(401, games.size());
+        for (int g = 0; g < finals.size(); g++) {
+            var replay = games.get(g).replay();
+            Assertions.assertEquals(PgnGame.Outcome.OK, replay.outcome());
+            Assertions.assertEquals(finals.get(g), replay.game(), "game " + g);
+        }
+        Assertions.assertEquals(2, games.get(400).replay().plies());
+    }
+
+    private static List<PgnGame> readAll(String pgn) throws IOException {
+        var games = new ArrayList<PgnGame>();
+        byte[] bytes = pgn.getBytes(StandardCharsets.UTF_8);
+        try (var reader = new PgnReader(Channels.newChannel(new ByteArrayInputStream(bytes)))) {
+            PgnGame game;
+            while ((game = reader.next()) != null) {
+                games.add(game);
+            }
+            Assertions.assertEquals(bytes.length, reader.bytesRead());
+        }
+        return games;
+    }
+}
@@ -0,0 +1,119 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.MoveList;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+public class NetworkTest {
+
+    private static final Network NETWORK = Network.random(64, 7);
+
+    // the incrementally kept hidden layer has to match one built from scratch, and undo restores it
+    @Test
+    public void accumulatorFollowsMoves() {
+        var random = new Random(11);
+        var game = new ChessGame();
+        var accumulator = NETWORK.newAccumulator();
+        game.getBoard().setPieceListener(accumulator);
+        int startScore = accumulator.evaluate(ChessGame.TeamColor.WHITE);
+        var moves = new MoveList();
+        int played = 0;
+        for (; played < 120; played++) {
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.doMove(moves.get(random.nextInt(moves.size())));
+            var rebuilt = NETWORK.newAccumulator();
+            new ChessBoard(game.getBoard()).setPieceListener(rebuilt);
+            for (var color : ChessGame.TeamColor.values()) {
+                Assertions.assertEquals(rebuilt.evaluate(color), accumulator.evaluate(color));
+            }
+        }
+        for (int i = 0; i < played; i++) {
+            game.undoMove();
+        }
+        Assertions.assertEquals(startScore, accumulator.evaluate(ChessGame.TeamColor.WHITE));
+    }
+
+    // both sides see the starting position the same way, flipped
+    @Test
+    public void perspectivesAreSymmetric() {
+        var accumulator = NETWORK.newAccumulator();
+        new ChessGame().getBoard().setPieceListener(accumulator);
+        Assertions.assertEquals(accumulator.evaluate(ChessGame.TeamColor.WHITE),
+                accumulator.evaluate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    public void saveAndLoadRoundTrip(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("random.nnue");
+        NETWORK.save(file);
+        var loaded = Network.load(file);
+        Assertions.assertEquals(NETWORK.hiddenSize(), loaded.hiddenSize());
+
+        var game = Fen.parse("r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w");
+        var original = NETWORK.newAccumulator();
+        var reread = loaded.newAccumulator();
+        new ChessBoard(game.getBoard()).setPieceListener(original);
+        new ChessBoard(game.getBoard()).setPieceListener(reread);
+        Assertions.assertEquals(original.evaluate(ChessGame.TeamColor.BLACK),
+                reread.evaluate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    public void loadRejectsOtherFiles(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("short.nnue");
+        NETWORK.save(file);
+        Files.write(file, Arrays.copyOf(Files.readAllBytes(file), 1000));
+        Assertions.assertThrows(IOException.class, () -> Network.load(file));
+        Files.writeString(file, "not a network at all");
+        Assertions.assertThrows(IOException.class, () -> Network.load(file));
+    }
+
+    // the simd kernels have to give exactly what the scalar ones do, tail lanes included
+    @Test
+    public void kernelsAgree() {
+        Assumptions.assumeTrue(Network.vectorized(), "vector api module not loaded");
+        var scalar = new ScalarKernels();
+        var random = new Random(3);
+        for (int length : new int[]{1, 7, 16, 61, 256}) {
+            int[] weights = random.ints(length * 2, -500, 500).toArray();
+            int[] expected = random.ints(length, -300, 600).toArray();
+            int[] actual = expected.clone();
+            scalar.add(expected, weights, length);
+            Kernels.BEST.add(actual, weights, length);
+            scalar.subtract(expected, weights, 3 % length);
+            Kernels.BEST.subtract(actual, weights, 3 % length);
+            Assertions.assertArrayEquals(expected, actual);
+            Assertions.assertEquals(scalar.clippedDot(expected, Network.QA, weights, 0),
+                    Kernels.BEST.clippedDot(actual, Network.QA, weights, 0));
+        }
+    }
+
+    // the search still finds mates with the network scoring the rest, and undoes its moves on the accumulator
+    @Test
+    public void searchWithNetwork() {
+        var search = new Search();
+        search.setNetwork(NETWORK);
+        var result = search.search(Fen.parse("k7/8/1K6/8/8/8/8/7R w"), SearchLimits.depth(4));
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 8), new ChessPosition(8, 8), null),
+                result.bestMove());
+        Assertions.assertTrue(result.isMate());
+
+        var start = search.search(new ChessGame(), SearchLimits.depth(3));
+        Assertions.assertNotNull(start.bestMove());
+        Assertions.assertTrue(Math.abs(start.score()) < Evaluation.MATE - Evaluation.MAX_PLY);
+    }
+}
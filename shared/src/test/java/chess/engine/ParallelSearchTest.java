@@ -0,0 +1,45 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Fen;
+import org.junit.jupiter.api.*;
+
+public class ParallelSearchTest {
+
+    private static final String MIDDLEGAME = "r2q1rk1/pp1nbppp/2p1pn2/3p4/2PP4/2N1PN2/PPQ1BPPP/R3K2R w";
+
+    // one thread with a fresh table is repeatable, down to the node count
+    @Test
+    public void singleThreadIsDeterministic() {
+        var game = Fen.parse(MIDDLEGAME);
+        SearchResult first;
+        SearchResult second;
+        try (var search = new ParallelSearch(1, new TranspositionTable(4))) {
+            first = search.search(game, SearchLimits.nodes(30_000));
+        }
+        try (var search = new ParallelSearch(1, new TranspositionTable(4))) {
+            second = search.search(game, SearchLimits.nodes(30_000));
+        }
+        Assertions.assertEquals(first.bestMove(), second.bestMove());
+        Assertions.assertEquals(first.score(), second.score());
+        Assertions.assertEquals(first.depth(), second.depth());
+        Assertions.assertEquals(first.nodes(), second.nodes());
+    }
+
+    // helpers add nodes but the answer still has to be a legal move, and mates are still found
+    @Test
+    public void helpersShareTheSearch() {
+        var game = Fen.parse(MIDDLEGAME);
+        var before = new ChessGame(game);
+        try (var search = new ParallelSearch(4, new TranspositionTable(8))) {
+            Assertions.assertEquals(4, search.threads());
+            var result = search.search(game, SearchLimits.depth(5));
+            Assertions.assertEquals(5, result.depth());
+            Assertions.assertTrue(game.validMoves(result.bestMove().getStartPosition()).contains(result.bestMove()));
+            Assertions.assertEquals(before, game);
+
+            var mate = search.search(Fen.parse("6k1/8/8/8/8/8/R7/1R4K1 w"), SearchLimits.millis(200));
+            Assertions.assertEquals(3, mate.matePlies(), mate.toString());
+        }
+    }
+}
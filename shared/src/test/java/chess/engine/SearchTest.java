@@ -0,0 +1,73 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.GameStatus;
+import org.junit.jupiter.api.*;
+
+public class SearchTest {
+
+    @Test
+    public void findsMateInOne() {
+        var game = Fen.parse("k7/8/1K6/8/8/8/8/7R w");
+        var result = new Search().search(game, SearchLimits.depth(4));
+        Assertions.assertEquals(move(1, 8, 8, 8), result.bestMove());
+        Assertions.assertTrue(result.isMate());
+        Assertions.assertEquals(1, result.matePlies());
+    }
+
+    // the rook roller, Ra7 then Rb8#
+    @Test
+    public void findsMateInTwo() {
+        var game = Fen.parse("6k1/8/8/8/8/8/R7/1R4K1 w");
+        var result = new Search().search(game, SearchLimits.depth(6));
+        Assertions.assertTrue(result.isMate(), result.toString());
+        Assertions.assertEquals(3, result.matePlies());
+    }
+
+    @Test
+    public void takesAHangingQueen() {
+        var game = Fen.parse("4k3/8/8/3q4/8/8/8/3RK3 w");
+        var result = new Search().search(game, SearchLimits.depth(3));
+        Assertions.assertEquals(move(1, 4, 5, 4), result.bestMove());
+        Assertions.assertTrue(result.score() > 300);
+    }
+
+    // a mated side has no move to give
+    @Test
+    public void noMoveWhenMated() {
+        var game = Fen.parse("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w");
+        Assertions.assertEquals(GameStatus.State.CHECKMATE, game.status().state());
+        var result = new Search().search(game, SearchLimits.depth(3));
+        Assertions.assertNull(result.bestMove());
+        Assertions.assertEquals(-Evaluation.MATE, result.score());
+    }
+
+    // budgets are kept to, the game isn't touched, and the move given is legal
+    @Test
+    public void respectsBudgetsAndLeavesGameAlone() {
+        var game = Fen.parse("r2q1rk1/pp1nbppp/2p1pn2/3p4/2PP4/2N1PN2/PPQ1BPPP/R3K2R w");
+        var before = new ChessGame(game);
+        var search = new Search();
+
+        var byNodes = search.search(game, SearchLimits.nodes(20_000));
+        Assertions.assertTrue(byNodes.nodes() <= 20_000 + 1, byNodes.toString());
+        Assertions.assertTrue(game.validMoves(byNodes.bestMove().getStartPosition()).contains(byNodes.bestMove()));
+
+        // with no time limit every iteration up to the depth runs, whatever nanoTime's origin
+        var byDepth = search.search(game, SearchLimits.depth(4));
+        Assertions.assertEquals(4, byDepth.depth(), byDepth.toString());
+
+        var byTime = search.search(game, SearchLimits.millis(100));
+        Assertions.assertTrue(byTime.nanos() < 150_000_000L, byTime.toString());
+        Assertions.assertTrue(byTime.depth() >= 2, byTime.toString());
+        Assertions.assertNotNull(byTime.bestMove());
+        Assertions.assertEquals(before, game);
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return ChessMove.of(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+}
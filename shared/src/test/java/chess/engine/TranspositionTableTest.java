@@ -0,0 +1,95 @@
+package chess.engine;
+
+import chess.Fen;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void storesAndFindsEntries() {
+        var table = new TranspositionTable(1);
+        Assertions.assertEquals(1 << 20, table.sizeInBytes());
+        Assertions.assertEquals(0, table.probe(42));
+
+        table.store(42, 1234, -Evaluation.MATE + 3, 7, TranspositionTable.LOWER);
+        long entry = table.probe(42);
+        Assertions.assertEquals(1234, TranspositionTable.move(entry));
+        Assertions.assertEquals(-Evaluation.MATE + 3, TranspositionTable.score(entry));
+        Assertions.assertEquals(7, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        Assertions.assertEquals(0, table.probe(43));
+
+        table.clear();
+        Assertions.assertEquals(0, table.probe(42));
+    }
+
+    // keys landing in the same bucket: the deep entry stays put, shallow ones share the other slot
+    @Test
+    public void deepEntriesSurviveShallowOnes() {
+        var table = new TranspositionTable(1);
+        var random = new Random(22);
+        long deep = random.nextLong();
+        table.store(deep, 1, 0, 10, TranspositionTable.EXACT);
+        int replaced = 0;
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextLong();
+            table.store(key, 2, 0, 1, TranspositionTable.EXACT);
+            if (table.probe(key) != 0) {
+                replaced++;
+            }
+        }
+        Assertions.assertEquals(200_000, replaced);
+        Assertions.assertEquals(10, TranspositionTable.depth(table.probe(deep)));
+
+        // a new search's entries may replace it though
+        table.newSearch();
+        table.store(deep, 3, 0, 1, TranspositionTable.EXACT);
+        Assertions.assertEquals(3, TranspositionTable.move(table.probe(deep)));
+    }
+
+    // threads writing over each other's entries never make a probe return another key's data
+    @Test
+    public void concurrentUseNeverMixesEntries() throws InterruptedException {
+        var table = new TranspositionTable(1);
+        var torn = new AtomicInteger();
+        var threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int seed = t;
+            threads[t] = new Thread(() -> {
+                var random = new Random(seed);
+                for (int i = 0; i < 500_000; i++) {
+                    // few keys, lots of collisions; the move and score are worked out from the key
+                    long key = random.nextInt(50_000) * 0x9E3779B97F4A7C15L;
+                    long entry = table.probe(key);
+                    if (entry != 0 && (TranspositionTable.move(entry) != (int) (key & 0xffff)
+                            || TranspositionTable.score(entry) != (int) (key >> 40))) {
+                        torn.incrementAndGet();
+                    }
+                    table.store(key, (int) (key & 0xffff), (int) (key >> 40), random.nextInt(20),
+                            TranspositionTable.EXACT);
+                }
+            });
+            threads[t].start();
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(0, torn.get());
+        Assertions.assertTrue(table.hashfull() > 0);
+    }
+
+    // at a fixed depth the table has to give the same answer with less work
+    @Test
+    public void searchWithTableVisitsFewerNodes() {
+        var game = Fen.parse("r2q1rk1/pp1nbppp/2p1pn2/3p4/2PP4/2N1PN2/PPQ1BPPP/R3K2R w");
+        var withTable = new Search(new TranspositionTable(8)).search(game, SearchLimits.depth(5));
+        var tiny = new Search(new TranspositionTable(1)).search(game, SearchLimits.depth(5));
+        Assertions.assertNotNull(withTable.bestMove());
+        Assertions.assertTrue(withTable.nodes() <= tiny.nodes() * 11 / 10, withTable + " vs " + tiny);
+        Assertions.assertTrue(new Search().search(Fen.parse("6k1/8/8/8/8/8/R7/1R4K1 w"), SearchLimits.depth(6))
+                .isMate());
+    }
+}